@@ -0,0 +1,74 @@
+package benchmarks;
+
+import chess.ChessGame;
+import com.google.gson.Gson;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.openjdk.jmh.annotations.*;
+import server.websocket.Connection;
+import server.websocket.ConnectionsManager;
+import websocket.messages.LoadGameMessage;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A LOAD_GAME broadcast to 1,000 observers of one game, per recipient. The sessions only count what they are
+ * sent, so this is the server's own cost. encodePerRecipient is the old loop that built a Gson and encoded the
+ * message again for every connection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BroadcastBenchmark {
+    private static final int OBSERVERS = 1000;
+    private static final int GAME_ID = 1;
+
+    private final ConnectionsManager connections = new ConnectionsManager();
+    private LoadGameMessage message;
+    private long charsSent;
+
+    @Setup
+    public void setUp() {
+        message = new LoadGameMessage(ChessGame.fromFen(Positions.KIWIPETE));
+        RemoteEndpoint remote = (RemoteEndpoint) Proxy.newProxyInstance(RemoteEndpoint.class.getClassLoader(),
+                new Class<?>[]{RemoteEndpoint.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("sendString")) {
+                        charsSent += ((String) args[0]).length();
+                    }
+                    return null;
+                });
+        Session session = (Session) Proxy.newProxyInstance(Session.class.getClassLoader(),
+                new Class<?>[]{Session.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getRemote" -> remote;
+                    case "isOpen" -> true;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+        for (int i = 0; i < OBSERVERS; i++) {
+            connections.add(GAME_ID, "observer" + i, session);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OBSERVERS)
+    public long broadcast() throws Exception {
+        connections.broadcast(GAME_ID, "", message);
+        return charsSent;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OBSERVERS)
+    public long encodePerRecipient() throws Exception {
+        for (Connection c : connections.connections.get(GAME_ID).values()) {
+            if (c.session.isOpen() && !c.username.equals("")) {
+                c.send(new Gson().toJson(message));
+            }
+        }
+        return charsSent;
+    }
+}
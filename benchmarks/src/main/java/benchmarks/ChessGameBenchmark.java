@@ -0,0 +1,97 @@
+package benchmarks;
+
+import chess.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the ChessGame calls the server makes on every move.
+ * Run with {@code -prof gc} to see bytes allocated per call next to the timings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChessGameBenchmark {
+
+    @Param({Positions.START, Positions.KIWIPETE, Positions.ENDGAME})
+    public String fen;
+
+    private ChessGame game;
+    private ChessMove move;
+    private ChessPosition piece;
+    private final MoveList moveList = new MoveList();
+
+    @Setup
+    public void setUp() {
+        game = ChessGame.fromFen(fen);
+        move = game.validMoves(game.getTeamTurn()).iterator().next();
+        piece = move.getStartPosition();
+    }
+
+    @Benchmark
+    public Object validMovesForTeam() {
+        return game.validMoves(game.getTeamTurn());
+    }
+
+    /**
+     * The same moves as validMovesForTeam, packed into a reused list instead of a new collection of ChessMoves.
+     */
+    @Benchmark
+    public int generateMoves() {
+        game.generateMoves(moveList);
+        return moveList.size();
+    }
+
+    @Benchmark
+    public Object validMovesForPiece() {
+        return game.validMoves(piece);
+    }
+
+    /**
+     * makeMove validates the move before playing it; undoMove puts the position back for the next call.
+     */
+    @Benchmark
+    public void makeMove(Blackhole blackhole) throws InvalidMoveException {
+        game.makeMove(move);
+        blackhole.consume(game.getTeamTurn());
+        game.undoMove();
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public Object fromFen() {
+        return ChessGame.fromFen(fen);
+    }
+
+    @Benchmark
+    public String toFen() {
+        return game.toFen();
+    }
+
+    @Benchmark
+    public int boardHashCode() {
+        return game.getBoard().hashCode();
+    }
+
+    /**
+     * Whole-tree cost: one op is a depth 3 perft, so nodes per second is the leaf count over the time per op.
+     */
+    @Benchmark
+    public long perftDepth3() {
+        return Perft.perft(game, 3);
+    }
+}
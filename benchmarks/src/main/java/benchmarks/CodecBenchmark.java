@@ -0,0 +1,64 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import codec.Codec;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+import requests.JoinGameRequest;
+import requests.RegisterRequest;
+import results.RegisterResult;
+import server.ErrorMessage;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.LoadGameMessage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The JSON work of handling a request, done as the handlers did it before the shared codec, with a new Gson
+ * for every call, and as they do it now through {@link Codec}. register reads a body and writes a result,
+ * rejectJoin reads a body and writes an error, and makeMove reads a command twice, once for its type and once
+ * as a MakeMoveCommand, then writes the game back. The service work between is left out.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CodecBenchmark {
+    @Param({"perCall", "shared"})
+    public String gson;
+
+    private final String registerBody = new Gson().toJson(new RegisterRequest("player", "password", "p@mail.com"));
+    private final RegisterResult registerResult = new RegisterResult("player", "0f1e2d3c-4b5a-6978-8796-a5b4c3d2e1f0");
+    private final String joinBody = new Gson().toJson(new JoinGameRequest(null, ChessGame.TeamColor.WHITE, 12));
+    private final String moveCommand = new Gson().toJson(new MakeMoveCommand("0f1e2d3c-4b5a-6978-8796-a5b4c3d2e1f0",
+            12, new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null)));
+    private final LoadGameMessage loadGame = new LoadGameMessage(ChessGame.fromFen(Positions.KIWIPETE));
+
+    private Gson gson() {
+        return gson.equals("shared") ? Codec.gson() : new Gson();
+    }
+
+    @Benchmark
+    public String register() {
+        RegisterRequest request = gson().fromJson(registerBody, RegisterRequest.class);
+        return request.username() == null ? null : gson().toJson(registerResult);
+    }
+
+    @Benchmark
+    public String rejectJoin() {
+        JoinGameRequest request = gson().fromJson(joinBody, JoinGameRequest.class);
+        return gson().toJson(new ErrorMessage("Error: bad request for game " + request.gameID()));
+    }
+
+    @Benchmark
+    public String makeMove() {
+        UserGameCommand command = gson().fromJson(moveCommand, UserGameCommand.class);
+        MakeMoveCommand move = gson().fromJson(moveCommand, MakeMoveCommand.class);
+        return command.getCommandType() == null || move.move() == null ? null : gson().toJson(loadGame);
+    }
+}
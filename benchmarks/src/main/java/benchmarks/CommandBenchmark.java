@@ -0,0 +1,42 @@
+package benchmarks;
+
+import chess.ChessMove;
+import chess.ChessPosition;
+import codec.Codec;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding a MAKE_MOVE frame as WebSocketHandler used to, once as UserGameCommand for its type and again as
+ * MakeMoveCommand, against the codec's one pass straight into MakeMoveCommand. The first read goes through a
+ * plain Gson, which knows nothing of the subclasses, as the handler's did.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandBenchmark {
+    private static final Gson PLAIN = new Gson();
+
+    private final String frame = Codec.gson().toJson(new MakeMoveCommand("0f1e2d3c-4b5a-6978-8796-a5b4c3d2e1f0",
+            12, new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 2), null)));
+
+    @Benchmark
+    public ChessMove twoPasses() {
+        UserGameCommand command = PLAIN.fromJson(frame, UserGameCommand.class);
+        return command.getCommandType() == UserGameCommand.CommandType.MAKE_MOVE
+                ? Codec.gson().fromJson(frame, MakeMoveCommand.class).move() : null;
+    }
+
+    @Benchmark
+    public ChessMove onePass() {
+        UserGameCommand command = Codec.gson().fromJson(frame, UserGameCommand.class);
+        return command instanceof MakeMoveCommand move ? move.move() : null;
+    }
+}
@@ -0,0 +1,41 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.Engine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a fixed-depth search from a cold transposition table. Divide the engine's node count
+ * (printed by SearchDriver) by the time per op for nodes per second.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EngineBenchmark {
+
+    @Param({Positions.START, Positions.KIWIPETE, Positions.ENDGAME})
+    public String fen;
+
+    @Param({"5"})
+    public int depth;
+
+    private ChessGame game;
+    private Engine engine;
+
+    @Setup
+    public void setUp() {
+        game = ChessGame.fromFen(fen);
+        engine = new Engine();
+    }
+
+    @Benchmark
+    public Object search() {
+        engine.clear();
+        return engine.search(game, Engine.Limits.depth(depth)).bestMove();
+    }
+}
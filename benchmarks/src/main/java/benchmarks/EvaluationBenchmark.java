@@ -0,0 +1,40 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.Evaluation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The static evaluation read from the totals the board keeps up to date, against the same score
+ * added up over all 64 squares.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EvaluationBenchmark {
+
+    @Param({Positions.START, Positions.KIWIPETE, Positions.ENDGAME})
+    public String fen;
+
+    private ChessGame game;
+
+    @Setup
+    public void setUp() {
+        game = ChessGame.fromFen(fen);
+    }
+
+    @Benchmark
+    public int incremental() {
+        return Evaluation.evaluate(game);
+    }
+
+    @Benchmark
+    public int fullScan() {
+        return Evaluation.scan(game);
+    }
+}
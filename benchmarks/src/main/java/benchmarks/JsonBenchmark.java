@@ -0,0 +1,84 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.MoveList;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveAppliedMessage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing and reading a game as JSON, as every LoadGameMessage and games row does. fromOlderJson reads the
+ * field-by-field layout rows were saved in before the compact adapter, with its 64 piece objects.
+ * loadGameMessage and moveAppliedMessage are what a move costs to send each observer with and without deltas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonBenchmark {
+    private static final Gson GSON = new Gson();
+
+    @Param({Positions.START, Positions.KIWIPETE, Positions.ENDGAME})
+    public String fen;
+
+    private ChessGame game;
+    private String json;
+    private String olderJson;
+    private MoveAppliedMessage moveApplied;
+
+    @Setup
+    public void setUp() {
+        game = ChessGame.fromFen(fen);
+        json = GSON.toJson(game);
+        MoveList moves = new MoveList();
+        game.generateMoves(moves);
+        ChessGame after = game.copy();
+        after.doMove(moves.get(0));
+        moveApplied = new MoveAppliedMessage(moves.toChessMoves().get(0), after.getTeamTurn(), after.getStatus(),
+                after.positionKey());
+        StringBuilder older = new StringBuilder("{\"teamTurn\":\"").append(game.getTeamTurn())
+                .append("\",\"board\":{\"pieces\":[");
+        var pieces = game.getBoard().getPieces();
+        for (int row = 0; row < 8; row++) {
+            older.append(row > 0 ? ",[" : "[");
+            for (int column = 0; column < 8; column++) {
+                var piece = pieces[row][column];
+                older.append(column > 0 ? "," : "").append(piece == null ? "null"
+                        : "{\"color\":\"" + piece.getTeamColor() + "\",\"type\":\"" + piece.getPieceType() + "\"}");
+            }
+            older.append(']');
+        }
+        olderJson = older.append("]},\"gameOver\":false,\"castlingRights\":15,\"enPassantSquare\":-1,")
+                .append("\"halfmoveClock\":0,\"fullmoveNumber\":1,\"historyLength\":0}").toString();
+    }
+
+    @Benchmark
+    public String toJson() {
+        return GSON.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame fromJson() {
+        return GSON.fromJson(json, ChessGame.class);
+    }
+
+    @Benchmark
+    public ChessGame fromOlderJson() {
+        return GSON.fromJson(olderJson, ChessGame.class);
+    }
+
+    @Benchmark
+    public String loadGameMessage() {
+        return GSON.toJson(new LoadGameMessage(game));
+    }
+
+    @Benchmark
+    public String moveAppliedMessage() {
+        return GSON.toJson(moveApplied);
+    }
+}
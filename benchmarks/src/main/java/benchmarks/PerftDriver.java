@@ -0,0 +1,91 @@
+package benchmarks;
+
+import chess.*;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Command line perft runner.
+ * <p>
+ * With no arguments it runs the standard suite and checks every count against the published numbers.
+ * {@code <depth> [fen]} counts one position, and {@code divide <depth> [fen]} prints the count under each move.
+ * {@code parallel <depth> [fen]} counts one position on every core, sharing a 256 MB subtree table.
+ */
+public class PerftDriver {
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.exit(runSuite() ? 0 : 1);
+        }
+        boolean divide = args[0].equals("divide");
+        boolean parallel = args[0].equals("parallel");
+        int first = divide || parallel ? 1 : 0;
+        int depth = Integer.parseInt(args[first]);
+        String fen = args.length > first + 1 ? joinFen(args, first + 1) : Positions.START;
+        ChessGame game = ChessGame.fromFen(fen);
+        if (divide) {
+            long total = 0;
+            for (Map.Entry<ChessMove, Long> entry : Perft.divide(game, depth).entrySet()) {
+                System.out.printf("%s: %d%n", moveText(entry.getKey()), entry.getValue());
+                total += entry.getValue();
+            }
+            System.out.printf("%nNodes: %d%n", total);
+        } else if (parallel) {
+            ParallelPerft perft = new ParallelPerft(ForkJoinPool.commonPool(), 256);
+            long start = System.nanoTime();
+            long nodes = perft.perft(game, depth);
+            long elapsed = Math.max(System.nanoTime() - start, 1);
+            System.out.printf("%s depth %d: %,d nodes %.1f ms %,.0f nodes/s on %d threads%n", fen, depth, nodes,
+                    elapsed / 1e6, nodes * 1e9 / elapsed, ForkJoinPool.commonPool().getParallelism());
+        } else {
+            report(fen, depth, game, -1);
+        }
+    }
+
+    private static boolean runSuite() {
+        boolean passed = true;
+        for (Object[] entry : Positions.SUITE) {
+            String fen = (String) entry[0];
+            long[] expected = (long[]) entry[1];
+            for (int depth = 1; depth <= expected.length; depth++) {
+                passed &= report(fen, depth, ChessGame.fromFen(fen), expected[depth - 1]);
+            }
+        }
+        System.out.println(passed ? "All counts match." : "Some counts are wrong.");
+        return passed;
+    }
+
+    private static boolean report(String fen, int depth, ChessGame game, long expected) {
+        long start = System.nanoTime();
+        long nodes = Perft.perft(game, depth);
+        long elapsed = Math.max(System.nanoTime() - start, 1);
+        boolean correct = expected < 0 || nodes == expected;
+        System.out.printf("%-70s depth %d: %,12d nodes %8.1f ms %,14.0f nodes/s%s%n", fen, depth, nodes,
+                elapsed / 1e6, nodes * 1e9 / elapsed, correct ? "" : " expected " + expected);
+        return correct;
+    }
+
+    private static String joinFen(String[] args, int from) {
+        return String.join(" ", Arrays.copyOfRange(args, from, args.length));
+    }
+
+    static String moveText(ChessMove move) {
+        String text = squareText(move.getStartPosition()) + squareText(move.getEndPosition());
+        if (move.getPromotionPiece() != null) {
+            text += switch (move.getPromotionPiece()) {
+                case QUEEN -> "q";
+                case ROOK -> "r";
+                case BISHOP -> "b";
+                case KNIGHT -> "n";
+                default -> "";
+            };
+        }
+        return text;
+    }
+
+    private static String squareText(ChessPosition position) {
+        return "" + (char) ('a' + position.getColumn() - 1) + position.getRow();
+    }
+}
@@ -0,0 +1,92 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.InvalidMoveException;
+import chess.MoveList;
+import chess.PgnReader;
+import chess.PgnWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing a file of random games. Each operation is one game, so the throughput is in games
+ * per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PgnBenchmark {
+    private static final int GAMES = 1000;
+    private static final Map<String, String> TAGS = Map.of("Event", "Benchmark", "Result", "*");
+
+    private final List<int[]> games = new ArrayList<>();
+    private byte[] pgn;
+
+    @Setup
+    public void setUp() throws IOException, InvalidMoveException {
+        Random random = new Random(2024);
+        MoveList moves = new MoveList();
+        for (int i = 0; i < GAMES; i++) {
+            ChessGame game = new ChessGame();
+            int[] played = new int[80];
+            int length = 0;
+            while (length < played.length) {
+                game.generateMoves(moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                played[length] = moves.get(random.nextInt(moves.size()));
+                game.doMove(played[length++]);
+            }
+            games.add(Arrays.copyOf(played, length));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out);
+        pgn = out.toByteArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public int read() throws IOException, InvalidMoveException {
+        int moves = 0;
+        try (PgnReader reader = new PgnReader(new ByteArrayInputStream(pgn))) {
+            while (reader.nextGame()) {
+                while (reader.nextMove() != 0) {
+                    moves++;
+                }
+            }
+        }
+        return moves;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public void write() throws IOException, InvalidMoveException {
+        write(OutputStream.nullOutputStream());
+    }
+
+    private void write(OutputStream out) throws IOException, InvalidMoveException {
+        try (PgnWriter writer = new PgnWriter(out)) {
+            for (int[] game : games) {
+                writer.startGame(TAGS);
+                for (int move : game) {
+                    writer.move(move);
+                }
+                writer.endGame("*");
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package benchmarks;
+
+/**
+ * Standard perft positions and their published node counts.
+ */
+public final class Positions {
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    public static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    public static final String ENDGAME = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    public static final String PROMOTIONS = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+    public static final String DISCOVERED_CHECKS = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+    public static final String MIDDLEGAME = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+
+    /**
+     * Each position with its node counts from depth 1 upward.
+     */
+    static final Object[][] SUITE = {
+            {START, new long[]{20, 400, 8902, 197281, 4865609}},
+            {KIWIPETE, new long[]{48, 2039, 97862, 4085603}},
+            {ENDGAME, new long[]{14, 191, 2812, 43238, 674624}},
+            {PROMOTIONS, new long[]{6, 264, 9467, 422333}},
+            {DISCOVERED_CHECKS, new long[]{44, 1486, 62379, 2103487}},
+            {MIDDLEGAME, new long[]{46, 2079, 89890, 3894594}},
+    };
+
+    private Positions() {
+    }
+}
@@ -0,0 +1,40 @@
+package benchmarks;
+
+import chess.*;
+
+import java.util.Arrays;
+
+/**
+ * Command line search runner, for watching how fast the engine searches.
+ * <p>
+ * {@code [depth [fen]]} searches one position, or the standard positions when no FEN is given,
+ * to the given depth (6 by default) and prints the best line with its node rate.
+ */
+public class SearchDriver {
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        String[] fens = args.length > 1 ? new String[]{String.join(" ", Arrays.copyOfRange(args, 1, args.length))}
+                : new String[]{Positions.START, Positions.KIWIPETE, Positions.MIDDLEGAME, Positions.ENDGAME};
+        Engine engine = new Engine();
+        long nodes = 0, nanos = 0;
+        for (String fen : fens) {
+            engine.clear();
+            Engine.Result result = engine.search(ChessGame.fromFen(fen), Engine.Limits.depth(depth));
+            nodes += result.nodes();
+            nanos += result.nanos();
+            System.out.printf("%s%n  depth %d score %d: %,d nodes %.1f ms %,d nodes/s%n  pv %s%n", fen,
+                    result.depth(), result.score(), result.nodes(), result.nanos() / 1e6, result.nodesPerSecond(),
+                    line(result));
+        }
+        System.out.printf("Total: %,d nodes %,.0f nodes/s%n", nodes, nodes * 1e9 / Math.max(nanos, 1));
+    }
+
+    private static String line(Engine.Result result) {
+        StringBuilder text = new StringBuilder();
+        for (ChessMove move : result.principalVariation()) {
+            text.append(PerftDriver.moveText(move)).append(' ');
+        }
+        return text.toString().trim();
+    }
+}
@@ -1,7 +1,7 @@
 package client;
 
 import chess.*;
-import com.google.gson.Gson;
+import codec.Codec;
 import exceptions.BadRequestException;
 import model.*;
 import requests.*;
@@ -154,7 +154,7 @@ public class Client implements NotificationHandler {
         try {
             var games = server.listGames(new ListGamesRequest(auth.authToken())).games();
             var result = new StringBuilder();
-            var gson = new Gson();
+            var gson = Codec.gson();
             int i = 0;
             for (var game : games) {
                 i++;
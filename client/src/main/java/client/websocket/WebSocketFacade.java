@@ -2,8 +2,9 @@ package client.websocket;
 
 import chess.ChessGame;
 import chess.ChessMove;
+import chess.InvalidMoveException;
 import client.GameClient;
-import com.google.gson.Gson;
+import codec.Codec;
 import exceptions.BadRequestException;
 import model.GameData;
 import websocket.commands.*;
@@ -19,6 +20,8 @@ public class WebSocketFacade extends Endpoint {
 
     Session session;
     ChessGame game;
+    String authToken;
+    int gameID;
     GameClient gameClient;
     NotificationHandler notificationHandler;
 
@@ -37,19 +40,14 @@ public class WebSocketFacade extends Endpoint {
             this.session.addMessageHandler(new MessageHandler.Whole<String>() {
                 @Override
                 public void onMessage(String message) {
-                    ServerMessage serverMessage = new Gson().fromJson(message, ServerMessage.class);
-                    switch (serverMessage.getServerMessageType()){
-                        case NOTIFICATION -> {
-                            NotificationMessage notification = new Gson().fromJson(message, NotificationMessage.class);
-                            notificationHandler.notify(new NotificationMessage(message));
-                        }
-                        case ERROR -> {
-                            ErrorMessage error = new Gson().fromJson(message, ErrorMessage.class);
-                            System.out.println(error.message());
-                        }
-                        case LOAD_GAME -> {
-                            LoadGameMessage loadGame = new Gson().fromJson(message, LoadGameMessage.class);
-                            game = loadGame.game();
+                    /* The codec reads the frame straight into the subclass its type names. */
+                    ServerMessage serverMessage = Codec.gson().fromJson(message, ServerMessage.class);
+                    switch (serverMessage) {
+                        case NotificationMessage notification -> notificationHandler.notify(new NotificationMessage(message));
+                        case ErrorMessage error -> System.out.println(error.message());
+                        case LoadGameMessage loadGame -> game = loadGame.game();
+                        case MoveAppliedMessage moveApplied -> applyMove(moveApplied);
+                        default -> {
                         }
                     }
                 }
@@ -65,18 +63,46 @@ public class WebSocketFacade extends Endpoint {
 
     public void connect(String authToken, int gameID) throws BadRequestException {
         try {
-            var command = new ConnectCommand(authToken, gameID);
-            this.session.getBasicRemote().sendText(new Gson().toJson(command));
+            this.authToken = authToken;
+            this.gameID = gameID;
+            var command = new ConnectCommand(authToken, gameID, true);
+            this.session.getBasicRemote().sendText(Codec.gson().toJson(command));
             gameClient.printBoard(game.getTeamTurn(), game);
         } catch (IOException e) {
             throw new BadRequestException(e.getMessage());
         }
     }
 
+    /**
+     * Plays a move the server applied on the local copy of the game, asking for the whole game again
+     * if there is no copy yet or the move leaves it in a different position from the server's.
+     */
+    private void applyMove(MoveAppliedMessage moveApplied) {
+        try {
+            if (game != null && moveApplied.move() != null) {
+                game.makeMove(moveApplied.move());
+                if (game.positionKey() == moveApplied.positionKey()) {
+                    if (moveApplied.status().isGameOver()) {
+                        game.setGameOver();
+                    }
+                    return;
+                }
+            }
+        } catch (InvalidMoveException e) {
+            // Out of step with the server; resync below.
+        }
+        try {
+            var command = new ResyncCommand(authToken, gameID);
+            this.session.getBasicRemote().sendText(Codec.gson().toJson(command));
+        } catch (IOException e) {
+            System.out.println("Error: unable to resync the game");
+        }
+    }
+
     public void makeMove(String authToken, int gameID, ChessMove move) throws BadRequestException {
         try {
             var command = new MakeMoveCommand(authToken, gameID, move);
-            this.session.getBasicRemote().sendText(new Gson().toJson(command));
+            this.session.getBasicRemote().sendText(Codec.gson().toJson(command));
             gameClient.printBoard(game.getTeamTurn(), game);
         } catch (IOException e) {
             throw new BadRequestException(e.getMessage());
@@ -86,7 +112,7 @@ public class WebSocketFacade extends Endpoint {
     public void leave(String authToken, int gameID) throws BadRequestException {
         try {
             var command = new LeaveCommand(authToken, gameID);
-            this.session.getBasicRemote().sendText(new Gson().toJson(command));
+            this.session.getBasicRemote().sendText(Codec.gson().toJson(command));
             this.session.close();
         } catch (IOException e) {
             throw new BadRequestException(e.getMessage());
@@ -96,7 +122,7 @@ public class WebSocketFacade extends Endpoint {
     public void resign(String authToken, int gameID) throws BadRequestException {
         try {
             var command = new ResignCommand(authToken, gameID);
-            this.session.getBasicRemote().sendText(new Gson().toJson(command));
+            this.session.getBasicRemote().sendText(Codec.gson().toJson(command));
             this.session.close();
         } catch (IOException e) {
             throw new BadRequestException(e.getMessage());
@@ -1,6 +1,6 @@
 package serverfacade;
 
-import com.google.gson.Gson;
+import codec.Codec;
 import requests.*;
 import results.*;
 import exceptions.*;
@@ -78,7 +78,7 @@ public class ServerFacade {
     private static void writeBody(Object request, HttpURLConnection http) throws IOException {
         if (request != null) {
             http.addRequestProperty("Content-Type", "application/json");
-            String reqData = new Gson().toJson(request);
+            String reqData = Codec.gson().toJson(request);
             try (OutputStream reqBody = http.getOutputStream()) {
                 reqBody.write(reqData.getBytes());
             }
@@ -110,7 +110,7 @@ public class ServerFacade {
             try (InputStream respBody = http.getInputStream()) {
                 InputStreamReader reader = new InputStreamReader(respBody);
                 if (responseClass != null) {
-                    response = new Gson().fromJson(reader, responseClass);
+                    response = Codec.gson().fromJson(reader, responseClass);
                 }
             }
         }
@@ -3,6 +3,7 @@ import exceptions.DataAccessException;
 import model.GameData;
 
 import java.util.Collection;
+import java.util.function.Consumer;
 
 
 public interface GameDAO {
@@ -10,5 +11,10 @@ public interface GameDAO {
     public GameData getGame(int gameID) throws DataAccessException;
     public Collection<GameData> listGames() throws DataAccessException;
     public void updateGame(int gameID, GameData game) throws DataAccessException;
+    /**
+     * Hands every stored game to the consumer in turn, reading rows as they are needed rather than
+     * loading the whole table first. The consumer may block to slow the reading down.
+     */
+    public void forEachGame(Consumer<StoredGame> consumer) throws DataAccessException;
     public void clear()throws DataAccessException;
 }
@@ -6,6 +6,8 @@ import model.GameData;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 public class MemoryGameDAO implements GameDAO {
     private Collection<GameData> gameData = new ArrayList<>();
@@ -15,14 +17,14 @@ public class MemoryGameDAO implements GameDAO {
     }
 
     @Override
-    public int createGame(String gameName) throws DataAccessException {
+    public synchronized int createGame(String gameName) throws DataAccessException {
         int gameID = createGameID();
         gameData.add(new GameData(gameID, null, null, gameName, new ChessGame()));
         return gameID;
     }
 
     @Override
-    public GameData getGame(int gameID) throws DataAccessException {
+    public synchronized GameData getGame(int gameID) throws DataAccessException {
         if (gameData == null) {
             return null;
         }
@@ -35,12 +37,34 @@ public class MemoryGameDAO implements GameDAO {
     }
 
     @Override
-    public Collection<GameData> listGames() throws DataAccessException {
-        return gameData;
+    public synchronized Collection<GameData> listGames() throws DataAccessException {
+        return List.copyOf(gameData);
     }
 
+    /**
+     * Hands out copies of the games taken from a snapshot of the list, as the SQL DAO hands out freshly
+     * decoded ones, so the consumer may use them on other threads while live games keep changing. Each copy
+     * is taken holding the game's monitor, which the websocket handler holds while it changes the game.
+     */
     @Override
-    public void updateGame(int gameID, GameData game) throws DataAccessException {
+    public void forEachGame(Consumer<StoredGame> consumer) throws DataAccessException {
+        List<GameData> snapshot;
+        synchronized (this) {
+            snapshot = List.copyOf(gameData);
+        }
+        for (GameData game : snapshot) {
+            ChessGame copy = null;
+            if (game.game() != null) {
+                synchronized (game.game()) {
+                    copy = game.game().copy();
+                }
+            }
+            consumer.accept(new StoredGame(game.gameID(), game.gameName(), null, copy));
+        }
+    }
+
+    @Override
+    public synchronized void updateGame(int gameID, GameData game) throws DataAccessException {
         if (gameData != null) {
             GameData oldGame = getGame(gameID);
             gameData.remove(oldGame);
@@ -51,7 +75,7 @@ public class MemoryGameDAO implements GameDAO {
     }
 
     @Override
-    public void clear() throws DataAccessException {
+    public synchronized void clear() throws DataAccessException {
         if (gameData != null) {
             gameData.clear();
         }
@@ -1,12 +1,13 @@
 package dataaccess;
 
 import chess.ChessGame;
-import com.google.gson.Gson;
+import codec.Codec;
 import exceptions.DataAccessException;
 import model.GameData;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.function.Consumer;
 import java.sql.*;
 
 import static java.sql.Statement.RETURN_GENERATED_KEYS;
@@ -47,7 +48,7 @@ public class SQLGameDAO implements GameDAO {
             var statement = "INSERT INTO games (gameName, game) VALUES (?, ?)";
             try (var pStatement = conn.prepareStatement(statement, RETURN_GENERATED_KEYS)) {
                 pStatement.setString(1, gameName);
-                var json = new Gson().toJson(new ChessGame());
+                var json = Codec.gson().toJson(new ChessGame());
                 pStatement.setString(2, json);
                 pStatement.executeUpdate();
                 ResultSet rs = pStatement.getGeneratedKeys();
@@ -74,7 +75,7 @@ public class SQLGameDAO implements GameDAO {
                                 resultSet.getString("whiteUsername"),
                                 resultSet.getString("blackUsername"),
                                 resultSet.getString("gameName"),
-                                new Gson().fromJson(json, ChessGame.class));
+                                Codec.gson().fromJson(json, ChessGame.class));
                     }
                 }
             }
@@ -98,7 +99,7 @@ public class SQLGameDAO implements GameDAO {
                         String blackUsername = rs.getString("blackUsername");
                         String whiteUsername = rs.getString("whiteUsername");
                         String gameName = rs.getString("gameName");
-                        ChessGame game = new Gson().fromJson(rs.getString("game"), ChessGame.class);
+                        ChessGame game = Codec.gson().fromJson(rs.getString("game"), ChessGame.class);
                         gameList.add(new GameData(gameID, whiteUsername, blackUsername, gameName, game));
                     }
                 }
@@ -110,6 +111,26 @@ public class SQLGameDAO implements GameDAO {
         return gameList;
     }
 
+    @Override
+    public void forEachGame(Consumer<StoredGame> consumer) throws DataAccessException {
+        configDatabase();
+        try (var conn = DatabaseManager.getConnection()) {
+            var statement = "SELECT gameID, gameName, game FROM games";
+            try (var ps = conn.prepareStatement(statement, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                // Connector/J only streams rows one at a time with this fetch size; otherwise it reads the whole result.
+                ps.setFetchSize(Integer.MIN_VALUE);
+                try (var rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(new StoredGame(rs.getInt(1), rs.getString(2), rs.getString(3), null));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(String.format
+                    ("Unable to read data: %s", e.getMessage()));
+        }
+    }
+
     @Override
     public void updateGame(int gameID, GameData game) throws DataAccessException {
         configDatabase();
@@ -121,7 +142,7 @@ public class SQLGameDAO implements GameDAO {
             try (var pStatement = conn.prepareStatement(statement)) {
                 pStatement.setString(1, game.whiteUsername());
                 pStatement.setString(2, game.blackUsername());
-                var json = new Gson().toJson(game.game());
+                var json = Codec.gson().toJson(game.game());
                 pStatement.setString(3, json);
                 pStatement.setInt(4, gameID);
                 pStatement.executeUpdate();
@@ -0,0 +1,19 @@
+package dataaccess;
+
+import chess.ChessGame;
+import codec.Codec;
+
+/**
+ * A row of the games table as it is stored. The SQL DAO leaves the game as its JSON so it can be decoded on
+ * whichever thread the caller likes; the memory DAO hands over a copy of its game and leaves json null.
+ */
+public record StoredGame(int gameID, String gameName, String json, ChessGame game) {
+    /**
+     * The game, decoded from its JSON if need be. May be null if the stored JSON was.
+     *
+     * @throws com.google.gson.JsonParseException if the JSON is not a game
+     */
+    public ChessGame decode() {
+        return game != null ? game : Codec.gson().fromJson(json, ChessGame.class);
+    }
+}
@@ -0,0 +1,245 @@
+package server;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import dataaccess.GameDAO;
+import dataaccess.SQLGameDAO;
+import dataaccess.StoredGame;
+import exceptions.DataAccessException;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Offline check of every stored game: each row is decoded and its position checked for things no legal game
+ * can reach, and the games are counted by status. Rows are read one at a time and checked on a ForkJoinPool,
+ * with only a fixed number in flight, so memory stays flat however large the table is.
+ * <pre>
+ *     java -cp server.jar server.GameAudit [report file]
+ * </pre>
+ */
+public class GameAudit {
+    /**
+     * Something wrong with a stored game. A game can have more than one.
+     */
+    public enum Problem {
+        /** The JSON could not be decoded into a game. */
+        UNREADABLE,
+        /** The board or the team to move is missing. */
+        INCOMPLETE,
+        /** A side does not have exactly one king. */
+        KING_COUNT,
+        /** A pawn stands on the first or last rank. */
+        PAWN_ON_BACK_RANK,
+        /** The side that just moved was left in check. */
+        OPPONENT_IN_CHECK,
+        /** The position is checkmate or stalemate but the game is not marked over. */
+        ENDED_NOT_MARKED_OVER,
+        /** Checking the game threw an exception. */
+        FAILED
+    }
+
+    /**
+     * What the audit found. Samples lists the first few games with problems, by ID.
+     */
+    public record Report(long games, long badGames, Map<ChessGame.GameStatus, Long> statuses,
+                         Map<Problem, Long> problems, List<String> samples, Duration elapsed) {
+
+        public void print(PrintStream out) {
+            double seconds = Math.max(elapsed.toNanos(), 1) / 1e9;
+            out.printf("Audited %d games in %.1f s (%.0f games/s)%n", games, seconds, games / seconds);
+            out.printf("%d games with problems%n", badGames);
+            out.println("Status:");
+            statuses.forEach((status, count) -> out.printf("  %-22s %d%n", status, count));
+            out.println("Problems:");
+            problems.forEach((problem, count) -> out.printf("  %-22s %d%n", problem, count));
+            if (!samples.isEmpty()) {
+                out.println("Examples:");
+                samples.forEach(sample -> out.println("  " + sample));
+            }
+        }
+    }
+
+    private static final int MAX_SAMPLES = 100;
+    private static final int IN_FLIGHT_PER_THREAD = 256;
+
+    private final GameDAO games;
+    private final ForkJoinPool pool;
+    private final int maxInFlight;
+
+    public GameAudit(GameDAO games, ForkJoinPool pool) {
+        this.games = games;
+        this.pool = pool;
+        this.maxInFlight = pool.getParallelism() * IN_FLIGHT_PER_THREAD;
+    }
+
+    public static void main(String[] args) throws DataAccessException, IOException {
+        Report report = new GameAudit(new SQLGameDAO(), ForkJoinPool.commonPool()).run();
+        if (args.length > 0) {
+            try (var out = new PrintStream(Files.newOutputStream(Path.of(args[0])))) {
+                report.print(out);
+            }
+        } else {
+            report.print(System.out);
+        }
+    }
+
+    /**
+     * Checks every game the DAO holds and waits for the checks to finish.
+     */
+    public Report run() throws DataAccessException {
+        long start = System.nanoTime();
+        Tally tally = new Tally();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        try {
+            games.forEachGame(stored -> {
+                /* Holds the reader back once the pool is this far behind, so rows never pile up. */
+                inFlight.acquireUninterruptibly();
+                try {
+                    pool.execute(() -> {
+                        try {
+                            tally.add(stored, check(stored, tally));
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    inFlight.release();
+                    throw e;
+                }
+            });
+        } finally {
+            inFlight.acquireUninterruptibly(maxInFlight);
+        }
+        return tally.report(Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * The problems with one game, counting its status in the tally when the position is sound enough to have one.
+     */
+    static Set<Problem> check(StoredGame stored, Tally tally) {
+        Set<Problem> problems = EnumSet.noneOf(Problem.class);
+        ChessGame game;
+        try {
+            game = stored.decode();
+        } catch (RuntimeException e) {
+            problems.add(Problem.UNREADABLE);
+            return problems;
+        }
+        if (game == null) {
+            problems.add(Problem.UNREADABLE);
+            return problems;
+        }
+        try {
+            ChessBoard board = game.getBoard();
+            ChessGame.TeamColor turn = game.getTeamTurn();
+            if (board == null || turn == null) {
+                problems.add(Problem.INCOMPLETE);
+                return problems;
+            }
+            checkPieces(board, problems);
+            if (!problems.isEmpty()) {
+                return problems;
+            }
+            ChessGame.TeamColor moved = turn == ChessGame.TeamColor.WHITE
+                    ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            if (game.isInCheck(moved)) {
+                problems.add(Problem.OPPONENT_IN_CHECK);
+                return problems;
+            }
+            ChessGame.GameStatus status = game.getStatus();
+            tally.statuses.get(status).increment();
+            if ((status == ChessGame.GameStatus.CHECKMATE || status == ChessGame.GameStatus.STALEMATE)
+                    && !game.isGameOver()) {
+                problems.add(Problem.ENDED_NOT_MARKED_OVER);
+            }
+        } catch (RuntimeException e) {
+            problems.add(Problem.FAILED);
+        }
+        return problems;
+    }
+
+    private static void checkPieces(ChessBoard board, Set<Problem> problems) {
+        int whiteKings = 0, blackKings = 0;
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(ChessPosition.of(row, col));
+                if (piece == null) {
+                    continue;
+                }
+                if (piece.getPieceType() == ChessPiece.PieceType.KING) {
+                    if (piece.getTeamColor() == ChessGame.TeamColor.WHITE) {
+                        whiteKings++;
+                    } else {
+                        blackKings++;
+                    }
+                } else if (piece.getPieceType() == ChessPiece.PieceType.PAWN && (row == 1 || row == 8)) {
+                    problems.add(Problem.PAWN_ON_BACK_RANK);
+                }
+            }
+        }
+        if (whiteKings != 1 || blackKings != 1) {
+            problems.add(Problem.KING_COUNT);
+        }
+    }
+
+    /**
+     * Counts shared by the worker threads. LongAdder keeps them from fighting over one counter.
+     */
+    static final class Tally {
+        private final LongAdder games = new LongAdder();
+        private final LongAdder badGames = new LongAdder();
+        private final Map<ChessGame.GameStatus, LongAdder> statuses = new EnumMap<>(ChessGame.GameStatus.class);
+        private final Map<Problem, LongAdder> problems = new EnumMap<>(Problem.class);
+        private final AtomicInteger sampled = new AtomicInteger();
+        private final ConcurrentLinkedQueue<String> samples = new ConcurrentLinkedQueue<>();
+
+        Tally() {
+            for (ChessGame.GameStatus status : ChessGame.GameStatus.values()) {
+                statuses.put(status, new LongAdder());
+            }
+            for (Problem problem : Problem.values()) {
+                problems.put(problem, new LongAdder());
+            }
+        }
+
+        void add(StoredGame stored, Set<Problem> found) {
+            games.increment();
+            if (found.isEmpty()) {
+                return;
+            }
+            badGames.increment();
+            for (Problem problem : found) {
+                problems.get(problem).increment();
+            }
+            if (sampled.getAndIncrement() < MAX_SAMPLES) {
+                samples.add(String.format("game %d (%s): %s", stored.gameID(), stored.gameName(), found));
+            }
+        }
+
+        Report report(Duration elapsed) {
+            Map<ChessGame.GameStatus, Long> statusCounts = new EnumMap<>(ChessGame.GameStatus.class);
+            statuses.forEach((status, count) -> statusCounts.put(status, count.sum()));
+            Map<Problem, Long> problemCounts = new EnumMap<>(Problem.class);
+            problems.forEach((problem, count) -> problemCounts.put(problem, count.sum()));
+            return new Report(games.sum(), badGames.sum(), Collections.unmodifiableMap(statusCounts),
+                    Collections.unmodifiableMap(problemCounts), List.copyOf(samples), elapsed);
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package server;
 
-import com.google.gson.Gson;
+import codec.Codec;
 import dataaccess.*;
 import exceptions.*;
 import model.*;
@@ -60,38 +60,38 @@ public class Server {
 
     public Object register(Request request, Response response) {
         try {
-            RegisterRequest user = new Gson().fromJson(request.body(), RegisterRequest.class);
+            RegisterRequest user = Codec.gson().fromJson(request.body(), RegisterRequest.class);
             RegisterResult registerResult = userService.register(user);
             response.status(200);
-            return new Gson().toJson(registerResult);
+            return Codec.gson().toJson(registerResult);
 
         } catch (DataAccessException e) {
             response.status(500);
-            return new Gson().toJson(new ErrorMessage(e.getMessage()));
+            return Codec.gson().toJson(new ErrorMessage(e.getMessage()));
 
         } catch (BadRequestException e) {
             response.status(400);
-            return new Gson().toJson(new ErrorMessage(e.getMessage()));
+            return Codec.gson().toJson(new ErrorMessage(e.getMessage()));
 
         } catch (AlreadyTakenException e) {
             response.status(403);
-            return new Gson().toJson(new ErrorMessage(e.getMessage()));
+            return Codec.gson().toJson(new ErrorMessage(e.getMessage()));
         }
     }
 
     public Object login(Request request, Response response) {
         try {
-            LoginRequest user = new Gson().fromJson(request.body(), LoginRequest.class); //The toString() portion here is probably wrong.
+            LoginRequest user = Codec.gson().fromJson(request.body(), LoginRequest.class); //The toString() portion here is probably wrong.
             LoginResult loginResult = userService.login(user);
             response.status(200);
-            return new Gson().toJson(loginResult);
+            return Codec.gson().toJson(loginResult);
         } catch (DataAccessException e) {
             response.status(500);
-            return new Gson().toJson(new ErrorMessage(e.getMessage()));
+            return Codec.gson().toJson(new ErrorMessage(e.getMessage()));
 
         } catch (UnauthorizedException e) {
             response.status(401);
-            return new Gson().toJson(new ErrorMessage(e.getMessage()));
+            return Codec.gson().toJson(new ErrorMessage(e.getMessage()));
         }
     }
 
@@ -104,11 +104,11 @@ public class Server {
 
         } catch (DataAccessException e) {
             response.status(500);
-            return new Gson().toJson(new ErrorMessage(e.getMessage()));
+            return Codec.gson().toJson(new ErrorMessage(e.getMessage()));
 
         } catch (UnauthorizedException e) {
             response.status(401);
-            return new Gson().toJson(new ErrorMessage(e.getMessage()));
+            return Codec.gson().toJson(new ErrorMessage(e.getMessage()));
         }
     }
 
@@ -117,38 +117,38 @@ public class Server {
             String auth = request.headers("authorization");
             ListGamesResult listGamesResult = gameService.listGames(new ListGamesRequest(auth));
             response.status(200);
-            return new Gson().toJson(listGamesResult);
+            return Codec.gson().toJson(listGamesResult);
         } catch (UnauthorizedException e) {
             response.status(401);
-            return new Gson().toJson(new ErrorMessage(e.getMessage()));
+            return Codec.gson().toJson(new ErrorMessage(e.getMessage()));
         }
     }
 
     public Object createGame(Request request, Response response) {
         try {
-            GameData gameName = new Gson().fromJson(request.body(), GameData.class);
+            GameData gameName = Codec.gson().fromJson(request.body(), GameData.class);
             String auth = request.headers("authorization");
             CreateGameRequest game = new CreateGameRequest(auth, gameName.gameName());
             CreateGameResult createGameResult = gameService.createGame(game);
             response.status(200);
-            return new Gson().toJson(createGameResult);
+            return Codec.gson().toJson(createGameResult);
         } catch (DataAccessException e) {
             response.status(500);
-            return new Gson().toJson(new ErrorMessage(e.getMessage()));
+            return Codec.gson().toJson(new ErrorMessage(e.getMessage()));
 
         } catch (UnauthorizedException e) {
             response.status(401);
-            return new Gson().toJson(new ErrorMessage(e.getMessage()));
+            return Codec.gson().toJson(new ErrorMessage(e.getMessage()));
         } catch (BadRequestException e) {
             response.status(400);
-            return new Gson().toJson(new ErrorMessage(e.getMessage()));
+            return Codec.gson().toJson(new ErrorMessage(e.getMessage()));
         }
     }
 
     public Object joinGame(Request request, Response response) {
         try {
             String auth = request.headers("authorization");
-            JoinGameRequest game = new Gson().fromJson(request.body(), JoinGameRequest.class);
+            JoinGameRequest game = Codec.gson().fromJson(request.body(), JoinGameRequest.class);
             game = new JoinGameRequest(auth, game.playerColor(), game.gameID());
             gameService.joinGame(game);
             response.status(200);
@@ -156,18 +156,18 @@ public class Server {
 
         } catch (UnauthorizedException e) {
             response.status(401);
-            return new Gson().toJson(new ErrorMessage(e.getMessage()));
+            return Codec.gson().toJson(new ErrorMessage(e.getMessage()));
         } catch (BadRequestException e) {
             response.status(400);
-            return new Gson().toJson(new ErrorMessage(e.getMessage()));
+            return Codec.gson().toJson(new ErrorMessage(e.getMessage()));
 
         } catch (AlreadyTakenException e) {
             response.status(403);
-            return new Gson().toJson(new ErrorMessage(e.getMessage()));
+            return Codec.gson().toJson(new ErrorMessage(e.getMessage()));
 
         } catch (DataAccessException e) {
             response.status(500);
-            return new Gson().toJson(new ErrorMessage(e.getMessage()));
+            return Codec.gson().toJson(new ErrorMessage(e.getMessage()));
         }
     }
 
@@ -1,6 +1,6 @@
 package server.websocket;
 
-import com.google.gson.Gson;
+import codec.Codec;
 import org.eclipse.jetty.websocket.api.RemoteEndpoint;
 import org.eclipse.jetty.websocket.api.Session;
 import websocket.messages.ErrorMessage;
@@ -10,19 +10,29 @@ import java.io.IOException;
 public class Connection {
     public String username;
     public Session session;
+    /**
+     * Whether the client asked for MoveAppliedMessage deltas instead of a LoadGameMessage after each move.
+     */
+    public boolean moveDeltas;
 
     public Connection(String username, Session session) {
         this.username = username;
         this.session = session;
     }
 
+    public Connection(String username, Session session, boolean moveDeltas) {
+        this.username = username;
+        this.session = session;
+        this.moveDeltas = moveDeltas;
+    }
+
     public void send(String msg) throws IOException {
         session.getRemote().sendString(msg);
     }
 
     public void sendError(RemoteEndpoint remote, String message) throws IOException {
         ErrorMessage error = new ErrorMessage(message);
-        remote.sendString(new Gson().toJson(error));
+        remote.sendString(Codec.gson().toJson(error));
     }
 
 }
\ No newline at end of file
@@ -1,26 +1,34 @@
 package server.websocket;
 
-import com.google.gson.Gson;
-import model.GameData;
+import codec.Codec;
 import org.eclipse.jetty.websocket.api.Session;
 import websocket.messages.*;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 public class ConnectionsManager {
     public final ConcurrentHashMap<Integer, ConcurrentHashMap<String, Connection>> connections = new ConcurrentHashMap<>();
 
+    /**
+     * Adds the user's connection to the game, keeping the delta setting of one already there on the same session.
+     */
     public Connection add(int gameID, String username, Session session) {
+        var users = connections.get(gameID);
+        Connection existing = users == null ? null : users.get(username);
+        return add(gameID, username, session, existing != null && existing.session == session && existing.moveDeltas);
+    }
+
+    public Connection add(int gameID, String username, Session session, boolean moveDeltas) {
         var users = connections.get(gameID);
         if (users == null) {
             ConcurrentHashMap<String, Connection> connection = new ConcurrentHashMap<>();
-            connection.put(username, new Connection(username, session));
+            connection.put(username, new Connection(username, session, moveDeltas));
             connections.put(gameID, connection);
         }
         ConcurrentHashMap<String, Connection> connection = connections.get(gameID);
-        connection.put(username, new Connection(username, session));
+        connection.put(username, new Connection(username, session, moveDeltas));
         connections.put(gameID, connection);
         return connections.get(gameID).get(username);
     }
@@ -30,22 +38,58 @@ public class ConnectionsManager {
         connection.remove(username);
     }
 
+    /**
+     * Sends the message to everyone in the game but the excluded user. The message is turned into JSON once
+     * and the same string goes to every connection, so a broadcast costs one encode plus a send per connection.
+     */
     public void broadcast(int gameID, String excludeUsername, ServerMessage message) throws IOException {
-        var removeList = new ArrayList<Connection>();
-        for (var c : connections.get(gameID).values()) {
-            if (c.session.isOpen()) {
-                if (!c.username.equals(excludeUsername)) {
-                    c.send(new Gson().toJson(message));
+        String json = Codec.gson().toJson(message);
+        fanOut(gameID, c -> c.username.equals(excludeUsername) ? null : json);
+    }
+
+    /**
+     * Sends a move to everyone in the game: the delta to connections that asked for deltas, the whole game to the rest.
+     */
+    public void broadcastMove(int gameID, MoveAppliedMessage delta, LoadGameMessage full) throws IOException {
+        String deltaJson = Codec.gson().toJson(delta);
+        String fullJson = Codec.gson().toJson(full);
+        fanOut(gameID, c -> c.moveDeltas ? deltaJson : fullJson);
+    }
+
+    /**
+     * Sends each open connection in the game the payload picked for it, if any, and drops closed ones.
+     * A failed send does not stop the others; the first failure is thrown once every connection has had its turn.
+     */
+    private void fanOut(int gameID, Function<Connection, String> payload) throws IOException {
+        var users = connections.get(gameID);
+        if (users == null) {
+            return;
+        }
+        IOException failure = null;
+        for (var c : users.values()) {
+            if (!c.session.isOpen()) {
+                users.remove(c.username, c);
+                continue;
+            }
+            String json = payload.apply(c);
+            if (json == null) {
+                continue;
+            }
+            try {
+                c.send(json);
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
                 }
-            } else {
-                removeList.add(c);
             }
         }
-        // Clean up any connections that were left open.
-        for (var c : removeList) {
-            connections.remove(c.username);
+        if (failure != null) {
+            throw failure;
         }
     }
+
     public Connection getConnection(int gameID, String username){
         return connections.get(gameID).get(username);
     }
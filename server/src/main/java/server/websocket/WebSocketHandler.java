@@ -2,7 +2,7 @@ package server.websocket;
 
 import chess.ChessGame;
 import chess.ChessMove;
-import com.google.gson.Gson;
+import codec.Codec;
 import dataaccess.GameDAO;
 import exceptions.*;
 import model.GameData;
@@ -16,45 +16,51 @@ import websocket.messages.*;
 import org.eclipse.jetty.websocket.api.*;
 
 import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
 
 @WebSocket
 public class WebSocketHandler {
     private final UserService userService;
     private final GameService gameService;
     private final ConnectionsManager connections = new ConnectionsManager();
+    private final Map<UserGameCommand.CommandType, CommandHandler> handlers =
+            new EnumMap<>(UserGameCommand.CommandType.class);
+
+    /**
+     * Handles one kind of command. The codec has already decoded it as the class its type goes with.
+     */
+    @FunctionalInterface
+    private interface CommandHandler {
+        void handle(String username, Session session, UserGameCommand command) throws Exception;
+    }
 
     public WebSocketHandler(UserService userService, GameService gameService) {
         this.userService = userService;
         this.gameService = gameService;
+        handlers.put(UserGameCommand.CommandType.CONNECT,
+                (username, session, command) -> connect(username, session, (ConnectCommand) command));
+        handlers.put(UserGameCommand.CommandType.MAKE_MOVE,
+                (username, session, command) -> makeMove(username, session, (MakeMoveCommand) command));
+        handlers.put(UserGameCommand.CommandType.LEAVE,
+                (username, session, command) -> leave(username, (LeaveCommand) command));
+        handlers.put(UserGameCommand.CommandType.RESIGN,
+                (username, session, command) -> resign(username, session, (ResignCommand) command));
+        handlers.put(UserGameCommand.CommandType.RESYNC,
+                (username, session, command) -> resync(session, (ResyncCommand) command));
     }
 
     @OnWebSocketMessage
     public void onMessage(Session session, String msg) {
         try {
-            UserGameCommand command = new Gson().fromJson(msg, UserGameCommand.class);
+            /* The codec reads the frame once, straight into the command class its commandType names. */
+            UserGameCommand command = Codec.gson().fromJson(msg, UserGameCommand.class);
             String username = userService.getAuth(command.getAuthToken()).username();
-            switch (command.getCommandType()) {
-                case CONNECT: {
-                    ConnectCommand connectCommand = new Gson().fromJson(msg, ConnectCommand.class);
-                    connect(username, session, connectCommand);
-                    break;
-                }
-                case MAKE_MOVE: {
-                    MakeMoveCommand makeMoveCommand = new Gson().fromJson(msg, MakeMoveCommand.class);
-                    makeMove(username, session, makeMoveCommand);
-                    break;
-                }
-                case LEAVE: {
-                    LeaveCommand leaveCommand = new Gson().fromJson(msg, LeaveCommand.class);
-                    leave(username, leaveCommand);
-                    break;
-                }
-                case RESIGN: {
-                    ResignCommand resignCommand = new Gson().fromJson(msg, ResignCommand.class);
-                    resign(username, session, resignCommand);
-                    break;
-                }
+            CommandHandler handler = handlers.get(command.getCommandType());
+            if (handler == null) {
+                throw new BadRequestException("Unknown command type.");
             }
+            handler.handle(username, session, command);
         } catch (UnauthorizedException ex) {
             sendMessage(session, new ErrorMessage("Error: unauthorized"));
         } catch (Exception ex) {
@@ -65,7 +71,7 @@ public class WebSocketHandler {
 
     private void sendMessage(Session session, ServerMessage message) {
         try {
-            var msg = new Gson().toJson(message);
+            var msg = Codec.gson().toJson(message);
             session.getRemote().sendString(msg);
         } catch (IOException e) {
             System.out.println("Error: unable to send message");
@@ -84,10 +90,13 @@ public class WebSocketHandler {
             int gameID = command.getGameID();
             GameData gameData = gameService.getGame(gameID);
             ChessGame game = gameData.game();
-            connection = connections.add(command.getGameID(), username, session);
+            connection = connections.add(command.getGameID(), username, session, command.moveDeltas());
             LoadGameMessage loadGameMessage = new LoadGameMessage(game);
-            sendMessage(session, loadGameMessage);
-            ChessGame.TeamColor color = game.getTeamTurn();
+            ChessGame.TeamColor color;
+            synchronized (game) {
+                sendMessage(session, loadGameMessage);
+                color = game.getTeamTurn();
+            }
             var message = String.format("%s is now playing as %s", username, color.toString());
             broadcast(message, gameID, username);
         } catch (DataAccessException e) {
@@ -108,38 +117,48 @@ public class WebSocketHandler {
             }
             ChessGame game = gameData.game();
             ChessMove move = command.move();
-            String opponent = switch (game.getTeamTurn()) {
-                case WHITE -> gameData.blackUsername();
-                case BLACK -> gameData.whiteUsername();
-            };
-            if (opponent.equals(username)){
-                String userTurn = switch (game.getTeamTurn()) {
-                    case WHITE -> gameData.whiteUsername();
-                    case BLACK -> gameData.blackUsername();
+            String opponent;
+            ChessGame.GameStatus status;
+            /* Held while the game changes and is sent, so the audit never copies a board halfway through a move. */
+            synchronized (game) {
+                opponent = switch (game.getTeamTurn()) {
+                    case WHITE -> gameData.blackUsername();
+                    case BLACK -> gameData.whiteUsername();
                 };
-                throw new BadRequestException(String.format("It is %s's turn.", userTurn));
-            }
-            if (game.isGameOver()) {
-                throw new BadRequestException("Game is over. No moves can be made.");
+                if (opponent.equals(username)){
+                    String userTurn = switch (game.getTeamTurn()) {
+                        case WHITE -> gameData.whiteUsername();
+                        case BLACK -> gameData.blackUsername();
+                    };
+                    throw new BadRequestException(String.format("It is %s's turn.", userTurn));
+                }
+                if (game.isGameOver()) {
+                    throw new BadRequestException("Game is over. No moves can be made.");
+                }
+                game.makeMove(move);
+                status = game.getStatus();
+                /* Marked before saving, so a reloaded game that has ended takes no more moves. */
+                if (status.isGameOver()) {
+                    game.setGameOver();
+                }
+                gameData = new GameData(gameID, gameData.whiteUsername(), gameData.blackUsername(), gameData.gameName(), game);
+                games.updateGame(gameID, gameData);
+                connection = connections.add(command.getGameID(), username, session);
+                var moveApplied = new MoveAppliedMessage(move, game.getTeamTurn(), status, game.positionKey());
+                connections.broadcastMove(gameID, moveApplied, new LoadGameMessage(game));
             }
-            game.makeMove(move);
-            gameData = new GameData(gameID, gameData.whiteUsername(), gameData.blackUsername(), gameData.gameName(), game);
-            games.updateGame(gameID, gameData);
-            connection = connections.add(command.getGameID(), username, session);
-            LoadGameMessage loadGameMessage = new LoadGameMessage(game);
-            connections.broadcast(gameID, "", loadGameMessage);
             var message = String.format("%s moved %s to %s", username, move.getStartPosition(), move.getEndPosition());
             broadcast(message, gameID, username);
-            if (game.isInStalemate(game.getTeamTurn())) {
-                message = String.format("%s is in stalemate. %s wins!", opponent, username);
-                broadcast(message, gameID, "");
-                game.setGameOver();
-            } else if (game.isInCheckmate(game.getTeamTurn())) {
-                message = String.format("%s is in checkmate. %s wins!", opponent, username);
-                broadcast(message, gameID, "");
-                game.setGameOver();
-            } else if (game.isInCheck(game.getTeamTurn())) {
-                message = String.format("%s is in check.", opponent);
+            message = switch (status) {
+                case STALEMATE -> String.format("%s is in stalemate. %s wins!", opponent, username);
+                case CHECKMATE -> String.format("%s is in checkmate. %s wins!", opponent, username);
+                case CHECK -> String.format("%s is in check.", opponent);
+                case INSUFFICIENT_MATERIAL -> "Neither player can checkmate. The game is a draw.";
+                case THREEFOLD_REPETITION -> "The same position has come up three times. The game is a draw.";
+                case FIFTY_MOVE_RULE -> "Fifty moves without a capture or pawn move. The game is a draw.";
+                case NORMAL -> null;
+            };
+            if (message != null) {
                 broadcast(message, gameID, "");
             }
         } catch (Exception e) {
@@ -148,6 +167,19 @@ public class WebSocketHandler {
         }
     }
 
+    /**
+     * Sends the whole game to a client whose copy no longer matches after a MoveAppliedMessage.
+     */
+    private void resync(Session session, ResyncCommand command) throws DataAccessException {
+        GameData gameData = gameService.getGame(command.getGameID());
+        if (gameData == null) {
+            throw new DataAccessException("Error: Game does not exist.");
+        }
+        synchronized (gameData.game()) {
+            sendMessage(session, new LoadGameMessage(gameData.game()));
+        }
+    }
+
     private void leave(String username, LeaveCommand command) throws IOException, DataAccessException {
         connections.remove(command.getGameID(), username);
         GameData gameData = gameService.getGame(command.getGameID());
@@ -174,15 +206,18 @@ public class WebSocketHandler {
                 throw new UnauthorizedException("You must be a player to resign.");
             }
             ChessGame game = gameData.game();
-            if (game.isGameOver()){
-                throw new BadRequestException("Game is already over.");
-            }
-            game.setGameOver();
+            String opponent;
+            synchronized (game) {
+                if (game.isGameOver()){
+                    throw new BadRequestException("Game is already over.");
+                }
+                game.setGameOver();
 
-            String opponent = switch (game.getTeamTurn()) {
-                case WHITE -> gameData.whiteUsername();
-                case BLACK -> gameData.blackUsername();
-            };
+                opponent = switch (game.getTeamTurn()) {
+                    case WHITE -> gameData.whiteUsername();
+                    case BLACK -> gameData.blackUsername();
+                };
+            }
             var message = String.format("%s resigned. %s wins!", username, opponent);
             broadcast(message, gameID, "");
             games.updateGame(gameID, gameData);
@@ -0,0 +1,115 @@
+package server;
+
+import chess.*;
+import dataaccess.MemoryGameDAO;
+import exceptions.DataAccessException;
+import model.GameData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameAuditTests {
+
+    private static void store(MemoryGameDAO games, ChessGame game) throws DataAccessException {
+        int gameID = games.createGame("game");
+        games.updateGame(gameID, new GameData(gameID, null, null, "game", game));
+    }
+
+    @Test
+    public void countsStatusesAndProblems() throws DataAccessException, InvalidMoveException {
+        MemoryGameDAO games = new MemoryGameDAO();
+        games.createGame("start");
+        ChessGame check = new ChessGame();
+        check.makeMove(new ChessMove(new ChessPosition(2, 6), new ChessPosition(3, 6), null));
+        check.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(6, 5), null));
+        check.makeMove(new ChessMove(new ChessPosition(2, 7), new ChessPosition(4, 7), null));
+        ChessGame mate = check.copy();
+        mate.makeMove(new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null));
+        store(games, check);
+        store(games, mate);
+
+        store(games, ChessGame.fromFen("8/8/8/8/8/8/8/4K3 w - - 0 1"));
+        store(games, ChessGame.fromFen("R3k3/8/8/8/8/8/8/4K3 w - - 0 1"));
+
+        GameAudit.Report report = new GameAudit(games, new ForkJoinPool(2)).run();
+        assertEquals(5, report.games());
+        assertEquals(3, report.badGames());
+        assertEquals(2, (long) report.statuses().get(ChessGame.GameStatus.NORMAL));
+        assertEquals(1, (long) report.statuses().get(ChessGame.GameStatus.CHECKMATE));
+        assertEquals(1, (long) report.problems().get(GameAudit.Problem.ENDED_NOT_MARKED_OVER));
+        assertEquals(1, (long) report.problems().get(GameAudit.Problem.KING_COUNT));
+        assertEquals(1, (long) report.problems().get(GameAudit.Problem.OPPONENT_IN_CHECK));
+        assertEquals(3, report.samples().size());
+    }
+
+    @Test
+    public void boundedInFlight() throws DataAccessException {
+        MemoryGameDAO games = new MemoryGameDAO();
+        for (int i = 0; i < 2000; i++) {
+            games.createGame("game " + i);
+        }
+        GameAudit.Report report = new GameAudit(games, new ForkJoinPool(1)).run();
+        assertEquals(2000, report.games());
+        assertEquals(0, report.badGames());
+        assertEquals(2000, (long) report.statuses().get(ChessGame.GameStatus.NORMAL));
+    }
+
+    @Test
+    public void auditSeesCopiesOfLiveGames() throws DataAccessException {
+        MemoryGameDAO games = new MemoryGameDAO();
+        int gameID = games.createGame("live");
+        ChessGame live = games.getGame(gameID).game();
+        List<ChessGame> seen = new ArrayList<>();
+        games.forEachGame(stored -> seen.add(stored.decode()));
+        assertEquals(1, seen.size());
+        assertNotSame(live, seen.get(0));
+        assertEquals(live.toFen(), seen.get(0).toFen());
+
+        /* The audit's getStatus calls happen on the copies, while the live game takes moves. */
+        new GameAudit(games, new ForkJoinPool(2)).run();
+        assertSame(live, games.getGame(gameID).game());
+    }
+
+    @Test
+    public void copiesWaitForTheMovePath() throws Exception {
+        MemoryGameDAO games = new MemoryGameDAO();
+        int gameID = games.createGame("live");
+        ChessGame live = games.getGame(gameID).game();
+        CompletableFuture<String> copied;
+        /* The websocket handler holds the game's monitor while it makes a move. */
+        synchronized (live) {
+            copied = CompletableFuture.supplyAsync(() -> {
+                List<String> fens = new ArrayList<>();
+                try {
+                    games.forEachGame(stored -> fens.add(stored.decode().toFen()));
+                } catch (DataAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+                return fens.get(0);
+            });
+            CompletableFuture<String> waiting = copied;
+            assertThrows(TimeoutException.class, () -> waiting.get(200, TimeUnit.MILLISECONDS));
+            live.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        }
+        assertEquals(live.toFen(), copied.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void listGamesIsASnapshot() throws DataAccessException {
+        MemoryGameDAO games = new MemoryGameDAO();
+        int gameID = games.createGame("first");
+        Collection<GameData> listed = games.listGames();
+        games.updateGame(gameID, new GameData(gameID, "white", null, "first", new ChessGame()));
+        games.createGame("second");
+        assertEquals(1, listed.size());
+        assertNull(listed.iterator().next().whiteUsername());
+    }
+}
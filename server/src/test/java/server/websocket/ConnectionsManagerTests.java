@@ -0,0 +1,105 @@
+package server.websocket;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import codec.Codec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveAppliedMessage;
+import websocket.messages.NotificationMessage;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionsManagerTests {
+    private static final int GAME_ID = 7;
+
+    private ConnectionsManager connections;
+    private StubSession alice;
+    private StubSession bob;
+    private StubSession carol;
+
+    @BeforeEach
+    public void setUp() {
+        connections = new ConnectionsManager();
+        alice = new StubSession();
+        bob = new StubSession();
+        carol = new StubSession();
+        connections.add(GAME_ID, "alice", alice.session);
+        connections.add(GAME_ID, "bob", bob.session, true);
+        connections.add(GAME_ID, "carol", carol.session);
+    }
+
+    @Test
+    public void broadcastEncodesOnce() throws IOException {
+        NotificationMessage message = new NotificationMessage("alice moved");
+        connections.broadcast(GAME_ID, "alice", message);
+
+        assertTrue(alice.sent.isEmpty());
+        assertEquals(Codec.gson().toJson(message), bob.last());
+        /* One encode means every connection is handed the very same string. */
+        assertSame(bob.last(), carol.last());
+    }
+
+    @Test
+    public void broadcastMoveEncodesEachFormOnce() throws IOException {
+        ChessGame game = new ChessGame();
+        StubSession dave = new StubSession();
+        connections.add(GAME_ID, "dave", dave.session, true);
+        MoveAppliedMessage delta = new MoveAppliedMessage(new ChessMove(new ChessPosition(2, 5),
+                new ChessPosition(4, 5), null), ChessGame.TeamColor.BLACK, ChessGame.GameStatus.NORMAL, 1L);
+        LoadGameMessage full = new LoadGameMessage(game);
+        connections.broadcastMove(GAME_ID, delta, full);
+
+        assertEquals(Codec.gson().toJson(delta), bob.last());
+        assertSame(bob.last(), dave.last());
+        assertEquals(Codec.gson().toJson(full), alice.last());
+        assertSame(alice.last(), carol.last());
+    }
+
+    @Test
+    public void closedConnectionsAreDropped() throws IOException {
+        bob.open = false;
+        connections.broadcast(GAME_ID, null, new NotificationMessage("hello"));
+
+        assertTrue(bob.sent.isEmpty());
+        assertFalse(connections.connections.get(GAME_ID).containsKey("bob"));
+        assertEquals(1, alice.sent.size());
+        assertEquals(1, carol.sent.size());
+        assertEquals(2, connections.connections.get(GAME_ID).size());
+    }
+
+    @Test
+    public void failedSendDoesNotStopTheRest() {
+        IOException broken = new IOException("broken pipe");
+        alice.failure = broken;
+
+        IOException thrown = assertThrows(IOException.class,
+                () -> connections.broadcast(GAME_ID, null, new NotificationMessage("hello")));
+
+        assertSame(broken, thrown);
+        assertEquals(1, bob.sent.size());
+        assertEquals(1, carol.sent.size());
+        /* A failing connection is still open, so it stays in the game. */
+        assertEquals(3, connections.connections.get(GAME_ID).size());
+    }
+
+    @Test
+    public void laterFailuresAreSuppressed() {
+        IOException first = new IOException("first");
+        IOException second = new IOException("second");
+        alice.failure = first;
+        carol.failure = second;
+
+        IOException thrown = assertThrows(IOException.class,
+                () -> connections.broadcast(GAME_ID, null, new NotificationMessage("hello")));
+
+        assertEquals(1, bob.sent.size());
+        assertTrue(thrown == first || thrown == second);
+        assertEquals(1, thrown.getSuppressed().length);
+        assertSame(thrown == first ? second : first, thrown.getSuppressed()[0]);
+    }
+}
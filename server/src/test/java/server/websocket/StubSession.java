@@ -0,0 +1,46 @@
+package server.websocket;
+
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A websocket session that keeps what it is sent instead of sending it. It can be closed, or made to fail
+ * every send, to see how the server copes.
+ */
+final class StubSession {
+    final List<String> sent = new ArrayList<>();
+    final Session session;
+    boolean open = true;
+    IOException failure;
+
+    StubSession() {
+        RemoteEndpoint remote = (RemoteEndpoint) Proxy.newProxyInstance(RemoteEndpoint.class.getClassLoader(),
+                new Class<?>[]{RemoteEndpoint.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("sendString")) {
+                        if (failure != null) {
+                            throw failure;
+                        }
+                        sent.add((String) args[0]);
+                    }
+                    return null;
+                });
+        session = (Session) Proxy.newProxyInstance(Session.class.getClassLoader(),
+                new Class<?>[]{Session.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getRemote" -> remote;
+                    case "isOpen" -> open;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "StubSession";
+                    default -> null;
+                });
+    }
+
+    String last() {
+        return sent.get(sent.size() - 1);
+    }
+}
@@ -0,0 +1,127 @@
+package server.websocket;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import codec.Codec;
+import dataaccess.MemoryAuthDAO;
+import dataaccess.MemoryGameDAO;
+import dataaccess.MemoryUserDAO;
+import exceptions.DataAccessException;
+import model.AuthData;
+import model.GameData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.GameService;
+import server.UserService;
+import websocket.commands.ConnectCommand;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.ResyncCommand;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveAppliedMessage;
+import websocket.messages.ServerMessage;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebSocketHandlerTests {
+    private static final String WHITE_TOKEN = "white-token";
+    private static final String BLACK_TOKEN = "black-token";
+
+    private MemoryGameDAO games;
+    private WebSocketHandler handler;
+    private int gameID;
+
+    /**
+     * Keeps games as JSON, the way the SQL DAO does, so what a test reads back is what was saved and not the
+     * object the handler is still holding.
+     */
+    private static final class SerializingGameDAO extends MemoryGameDAO {
+        @Override
+        public void updateGame(int gameID, GameData game) throws DataAccessException {
+            ChessGame saved = Codec.gson().fromJson(Codec.gson().toJson(game.game()), ChessGame.class);
+            super.updateGame(gameID, new GameData(gameID, game.whiteUsername(), game.blackUsername(),
+                    game.gameName(), saved));
+        }
+
+        @Override
+        public GameData getGame(int gameID) throws DataAccessException {
+            GameData game = super.getGame(gameID);
+            return game == null ? null : new GameData(gameID, game.whiteUsername(), game.blackUsername(),
+                    game.gameName(), game.game().copy());
+        }
+    }
+
+    @BeforeEach
+    public void setUp() throws DataAccessException {
+        MemoryAuthDAO auths = new MemoryAuthDAO();
+        auths.createAuth(new AuthData("white", WHITE_TOKEN));
+        auths.createAuth(new AuthData("black", BLACK_TOKEN));
+        games = new SerializingGameDAO();
+        MemoryUserDAO users = new MemoryUserDAO();
+        handler = new WebSocketHandler(new UserService(users, auths), new GameService(auths, games, users));
+        gameID = games.createGame("game");
+    }
+
+    private void startFrom(String fen) throws DataAccessException {
+        games.updateGame(gameID, new GameData(gameID, "white", "black", "game", ChessGame.fromFen(fen)));
+    }
+
+    private void move(StubSession session, String token, int startRow, int startColumn, int endRow, int endColumn) {
+        ChessMove move = new ChessMove(new ChessPosition(startRow, startColumn), new ChessPosition(endRow, endColumn), null);
+        handler.onMessage(session.session, Codec.gson().toJson(new MakeMoveCommand(token, gameID, move)));
+    }
+
+    private static List<ServerMessage> received(StubSession session) {
+        return session.sent.stream().map(json -> Codec.gson().fromJson(json, ServerMessage.class)).toList();
+    }
+
+    @Test
+    public void movesGoOutAsDeltasOnlyToThoseWhoAsked() throws DataAccessException {
+        startFrom("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+        StubSession white = new StubSession();
+        StubSession black = new StubSession();
+        handler.onMessage(white.session, Codec.gson().toJson(new ConnectCommand(WHITE_TOKEN, gameID, true)));
+        handler.onMessage(black.session, Codec.gson().toJson(new ConnectCommand(BLACK_TOKEN, gameID)));
+        white.sent.clear();
+        black.sent.clear();
+
+        move(white, WHITE_TOKEN, 2, 5, 4, 5);
+        ChessGame saved = games.getGame(gameID).game();
+
+        List<ServerMessage> toWhite = received(white);
+        assertEquals(1, toWhite.size());
+        MoveAppliedMessage delta = assertInstanceOf(MoveAppliedMessage.class, toWhite.get(0));
+        assertEquals(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null), delta.move());
+        assertEquals(ChessGame.TeamColor.BLACK, delta.teamTurn());
+        assertEquals(saved.positionKey(), delta.positionKey());
+
+        List<ServerMessage> toBlack = received(black);
+        LoadGameMessage full = assertInstanceOf(LoadGameMessage.class, toBlack.get(0));
+        assertEquals(saved.toFen(), full.game().toFen());
+        assertTrue(toBlack.stream().noneMatch(MoveAppliedMessage.class::isInstance));
+
+        /* A client that lost track asks again and gets the whole game. */
+        handler.onMessage(white.session, Codec.gson().toJson(new ResyncCommand(WHITE_TOKEN, gameID)));
+        LoadGameMessage resync = assertInstanceOf(LoadGameMessage.class, received(white).get(1));
+        assertEquals(saved.toFen(), resync.game().toFen());
+    }
+
+    @Test
+    public void drawnGameIsSavedAsOver() throws DataAccessException {
+        startFrom("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 99 50");
+        StubSession white = new StubSession();
+        move(white, WHITE_TOKEN, 1, 7, 3, 6);
+
+        ChessGame saved = games.getGame(gameID).game();
+        assertEquals(ChessGame.GameStatus.FIFTY_MOVE_RULE, saved.getStatus());
+        assertTrue(saved.isGameOver());
+
+        /* The reloaded game refuses further moves. */
+        StubSession black = new StubSession();
+        move(black, BLACK_TOKEN, 8, 7, 6, 6);
+        assertTrue(black.last().contains("Game is over"), black.last());
+        assertEquals(ChessGame.TeamColor.BLACK, games.getGame(gameID).game().getTeamTurn());
+    }
+}
@@ -0,0 +1,276 @@
+package chess;
+
+/**
+ * Square numbering and attack tables for the bitboard side of ChessBoard.
+ * Square 0 is a1 (row 1, column 1) and square 63 is h8, so a position maps to bit
+ * (row - 1) * 8 + (column - 1).
+ * <p>
+ * Every table is filled in once when the class loads. Knight, king and pawn attacks are one array
+ * read per square. Rook and bishop attacks use magic bitboards: the pieces on a slider's rays are
+ * multiplied by a per-square magic number whose top bits index straight into that square's attack table.
+ */
+final class Bitboards {
+    static final long FILE_A = 0x0101010101010101L;
+    static final long FILE_B = FILE_A << 1;
+    static final long FILE_G = FILE_A << 6;
+    static final long FILE_H = FILE_A << 7;
+    static final long RANK_1 = 0xFFL;
+    static final long RANK_3 = RANK_1 << 16;
+    static final long RANK_6 = RANK_1 << 40;
+    static final long RANK_8 = RANK_1 << 56;
+
+    /* Squares strictly between two squares on a shared row, column or diagonal, and the whole line through them. */
+    private static final long[] BETWEEN = new long[64 * 64];
+    private static final long[] LINE = new long[64 * 64];
+
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    /* White pawn attacks for squares 0-63, then black pawn attacks for squares 64-127. */
+    private static final long[] PAWN = new long[128];
+
+    /*
+     * Magic multipliers, one per square. Any number that maps every blocker arrangement on the square's rays
+     * to a slot holding the right attack set will do; these were found by trying sparse random numbers from a
+     * fixed-seed xorshift generator until one fit, and the table build below checks each one again.
+     */
+    private static final long[] ROOK_MAGICS = {
+            0x1080004008801020L, 0x0840092002C03000L, 0x1900200010400900L, 0x0880100008000480L,
+            0x4200100420080200L, 0x8100020100080400L, 0x0200040110886200L, 0x0200008040220411L,
+            0x0404800084400220L, 0x0000401000402000L, 0x0086001081220440L, 0x0408800800100280L,
+            0x000A001201040820L, 0x8848800200840080L, 0x4001000100040200L, 0x0442000102105084L,
+            0x9080010020804100L, 0x0040404000201009L, 0x0000808010002009L, 0x2200090021D00100L,
+            0x0008008008040080L, 0x0004004002010040L, 0x0011040008015042L, 0x00000A0001768104L,
+            0x0000800080204009L, 0x2010004140002001L, 0x9800200280100080L, 0x1000100080080080L,
+            0x0050500500080100L, 0x0000020080040080L, 0x0C10010400420810L, 0x1040008200005104L,
+            0x01808240088004A0L, 0x0882804004802000L, 0x0880402001001100L, 0x2000210409001000L,
+            0x2000480131001500L, 0x0000800400800200L, 0x000002380C001003L, 0x4600084882000431L,
+            0x0080002000504000L, 0x0300500020004002L, 0x0040408200220011L, 0x0010040008004040L,
+            0x0000080004008080L, 0x0010040002008080L, 0x2012004881020004L, 0x8300842444820011L,
+            0x0088403882010200L, 0x0820400080210100L, 0x0110910040A00300L, 0x0801100280080480L,
+            0x0242009008200600L, 0x1002000489500200L, 0x0040800200010080L, 0x0091800041000080L,
+            0x0000209300488001L, 0x04C1002414824001L, 0x020020000B001041L, 0x7000100004200901L,
+            0x8002002004100802L, 0x30010002084C0007L, 0x0888221800813004L, 0x4000002840840112L
+    };
+    private static final long[] BISHOP_MAGICS = {
+            0x20C0090901061081L, 0x0024040094030104L, 0x8210810200290200L, 0x0011040484620000L,
+            0x0081104002221000L, 0x0009012011001350L, 0x0081010802400380L, 0x0000420210010408L,
+            0x0008105002280050L, 0x0001028484040044L, 0x2A00880810408804L, 0x7020022282000100L,
+            0x0084040420100A50L, 0x000401010840E000L, 0x2020020210420888L, 0x0008084202012010L,
+            0x2010400810018800L, 0x0445122008020840L, 0x0804100808002008L, 0x0008002104110100L,
+            0x0061005820080800L, 0x2001000200820100L, 0x480C210084010800L, 0x3004442500480420L,
+            0x1010102240048100L, 0x00182009084220A3L, 0x8803090A10004205L, 0x0208080040202020L,
+            0x000C044084010040L, 0x00A1010002004106L, 0x6008210020640202L, 0x1600902112860801L,
+            0x00042008C1220200L, 0x010C042002440140L, 0x5022080200040820L, 0x0402004042940100L,
+            0x0860108400008020L, 0x000C080022021000L, 0x0264080652822100L, 0x4005031221010401L,
+            0x0004502410008400L, 0x000500B010A20400L, 0x0415094050080800L, 0x080000201800A104L,
+            0x4022A80304000110L, 0x4012140802028020L, 0x40200104010100A0L, 0x12810806008B0C41L,
+            0x0020441008080000L, 0x2002120084045420L, 0x0704020062080002L, 0x0000001084040001L,
+            0x0322200891240200L, 0xF040200210024800L, 0x0140824832008042L, 0x000210020A004602L,
+            0x0083042805141020L, 0x002C12009A011000L, 0x0041A00044140400L, 0x00004004020A0202L,
+            0x0000140010020210L, 0x2864160811012200L, 0x2060080841082A17L, 0xA010041108003100L
+    };
+
+    private static final Magic[] ROOK = new Magic[64];
+    private static final Magic[] BISHOP = new Magic[64];
+
+    static {
+        int[][] directions = {{0, 1}, {0, -1}, {1, 0}, {-1, 0}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+        for (int from = 0; from < 64; from++) {
+            for (int[] direction : directions) {
+                long line = (1L << from) | ray(from, 0, direction[0], direction[1])
+                        | ray(from, 0, -direction[0], -direction[1]);
+                long between = 0;
+                int row = from >>> 3, column = from & 7;
+                while (true) {
+                    row += direction[0];
+                    column += direction[1];
+                    if (row < 0 || row > 7 || column < 0 || column > 7) {
+                        break;
+                    }
+                    int to = row * 8 + column;
+                    BETWEEN[from * 64 + to] = between;
+                    LINE[from * 64 + to] = line;
+                    between |= 1L << to;
+                }
+            }
+        }
+
+        for (int square = 0; square < 64; square++) {
+            long bit = 1L << square;
+            KNIGHT[square] = knightSpread(bit);
+            KING[square] = kingSpread(bit);
+            PAWN[square] = ((bit << 7) & ~FILE_H) | ((bit << 9) & ~FILE_A);
+            PAWN[64 + square] = ((bit >>> 9) & ~FILE_H) | ((bit >>> 7) & ~FILE_A);
+        }
+
+        for (int square = 0; square < 64; square++) {
+            ROOK[square] = new Magic(square, true, ROOK_MAGICS[square]);
+            BISHOP[square] = new Magic(square, false, BISHOP_MAGICS[square]);
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    static int square(ChessPosition position) {
+        return (position.getRow() - 1) * 8 + position.getColumn() - 1;
+    }
+
+    static long knightAttacks(int square) {
+        return KNIGHT[square];
+    }
+
+    static long kingAttacks(int square) {
+        return KING[square];
+    }
+
+    static long pawnAttacks(ChessGame.TeamColor color, int square) {
+        return PAWN[color.ordinal() * 64 + square];
+    }
+
+    /**
+     * Squares a pawn can move forward to, including the double step from its starting row.
+     */
+    static long pawnPushes(ChessGame.TeamColor color, long pawns, long occupied) {
+        if (color == ChessGame.TeamColor.WHITE) {
+            long single = (pawns << 8) & ~occupied;
+            return single | (((single & RANK_3) << 8) & ~occupied);
+        }
+        long single = (pawns >>> 8) & ~occupied;
+        return single | (((single & RANK_6) >>> 8) & ~occupied);
+    }
+
+    static long rookAttacks(int square, long occupied) {
+        return ROOK[square].attacks(occupied);
+    }
+
+    static long bishopAttacks(int square, long occupied) {
+        return BISHOP[square].attacks(occupied);
+    }
+
+    static long between(int from, int to) {
+        return BETWEEN[from * 64 + to];
+    }
+
+    /**
+     * The full row, column or diagonal through both squares, or zero if they do not share one.
+     */
+    static long line(int from, int to) {
+        return LINE[from * 64 + to];
+    }
+
+    /**
+     * Every piece of the attacking team that hits the square, given which squares count as occupied.
+     * Pieces missing from the occupancy are ignored, which lets callers test a position a move would leave behind.
+     */
+    static long attackers(ChessBoard board, int square, ChessGame.TeamColor attacker, long occupied) {
+        long queens = board.bitboard(attacker, ChessPiece.PieceType.QUEEN);
+        long attackers = (pawnAttacks(ChessGame.opponent(attacker), square) & board.bitboard(attacker, ChessPiece.PieceType.PAWN))
+                | (KNIGHT[square] & board.bitboard(attacker, ChessPiece.PieceType.KNIGHT))
+                | (KING[square] & board.bitboard(attacker, ChessPiece.PieceType.KING))
+                | (rookAttacks(square, occupied) & (board.bitboard(attacker, ChessPiece.PieceType.ROOK) | queens))
+                | (bishopAttacks(square, occupied) & (board.bitboard(attacker, ChessPiece.PieceType.BISHOP) | queens));
+        return attackers & occupied;
+    }
+
+    /**
+     * Whether any piece of the attacking team hits the square. Looks outward from the square itself:
+     * a knight, king or pawn pattern centered there, and rook and bishop rays, can only land on an
+     * attacker of the same kind, so nothing else on the board is visited.
+     */
+    static boolean isAttacked(ChessBoard board, int square, ChessGame.TeamColor attacker) {
+        if ((pawnAttacks(ChessGame.opponent(attacker), square) & board.bitboard(attacker, ChessPiece.PieceType.PAWN)) != 0
+                || (KNIGHT[square] & board.bitboard(attacker, ChessPiece.PieceType.KNIGHT)) != 0
+                || (KING[square] & board.bitboard(attacker, ChessPiece.PieceType.KING)) != 0) {
+            return true;
+        }
+        long occupied = board.occupied();
+        long queens = board.bitboard(attacker, ChessPiece.PieceType.QUEEN);
+        long rooks = board.bitboard(attacker, ChessPiece.PieceType.ROOK) | queens;
+        long bishops = board.bitboard(attacker, ChessPiece.PieceType.BISHOP) | queens;
+        return (rooks != 0 && (rookAttacks(square, occupied) & rooks) != 0)
+                || (bishops != 0 && (bishopAttacks(square, occupied) & bishops) != 0);
+    }
+
+    private static long knightSpread(long knights) {
+        long oneLeft = (knights >>> 1) & ~FILE_H;
+        long twoLeft = (knights >>> 2) & ~(FILE_G | FILE_H);
+        long oneRight = (knights << 1) & ~FILE_A;
+        long twoRight = (knights << 2) & ~(FILE_A | FILE_B);
+        long oneSide = oneLeft | oneRight, twoSide = twoLeft | twoRight;
+        return (oneSide << 16) | (oneSide >>> 16) | (twoSide << 8) | (twoSide >>> 8);
+    }
+
+    private static long kingSpread(long kings) {
+        long attacks = ((kings << 1) & ~FILE_A) | ((kings >>> 1) & ~FILE_H);
+        kings |= attacks;
+        return attacks | (kings << 8) | (kings >>> 8);
+    }
+
+    /**
+     * Walks one direction from a square until it leaves the board or hits a piece.
+     * The blocking square is included so captures can be masked in by the caller.
+     * Only used to fill the tables.
+     */
+    private static long ray(int square, long occupied, int rowStep, int columnStep) {
+        long attacks = 0;
+        int row = square >>> 3, column = square & 7;
+        while (true) {
+            row += rowStep;
+            column += columnStep;
+            if (row < 0 || row > 7 || column < 0 || column > 7) {
+                return attacks;
+            }
+            long bit = 1L << (row * 8 + column);
+            attacks |= bit;
+            if ((occupied & bit) != 0) {
+                return attacks;
+            }
+        }
+    }
+
+    private static long slowAttacks(int square, long occupied, boolean rook) {
+        if (rook) {
+            return ray(square, occupied, 0, -1) | ray(square, occupied, 0, 1)
+                    | ray(square, occupied, 1, 0) | ray(square, occupied, -1, 0);
+        }
+        return ray(square, occupied, 1, -1) | ray(square, occupied, -1, -1)
+                | ray(square, occupied, 1, 1) | ray(square, occupied, -1, 1);
+    }
+
+    /**
+     * Attack table for one slider on one square. The mask holds the squares whose pieces can block the
+     * slider; the edge squares are left out because a piece there cannot hide anything behind it.
+     */
+    private static final class Magic {
+        private final long mask;
+        private final long magic;
+        private final int shift;
+        private final long[] attacks;
+
+        Magic(int square, boolean rook, long magic) {
+            long edges = ((RANK_1 | RANK_8) & ~(RANK_1 << (square & ~7))) | ((FILE_A | FILE_H) & ~(FILE_A << (square & 7)));
+            this.mask = slowAttacks(square, 0, rook) & ~edges;
+            this.magic = magic;
+            this.shift = 64 - Long.bitCount(mask);
+            this.attacks = new long[1 << Long.bitCount(mask)];
+
+            boolean[] filled = new boolean[attacks.length];
+            long subset = 0;
+            do {
+                long expected = slowAttacks(square, subset, rook);
+                int index = (int) ((subset * magic) >>> shift);
+                if (filled[index] && attacks[index] != expected) {
+                    throw new IllegalStateException("Bad magic for square " + square);
+                }
+                filled[index] = true;
+                attacks[index] = expected;
+                subset = (subset - mask) & mask;
+            } while (subset != 0);
+        }
+
+        long attacks(long occupied) {
+            return attacks[(int) (((occupied & mask) * magic) >>> shift)];
+        }
+    }
+}
@@ -1,11 +1,42 @@
 package chess;
 
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Objects;
 
 
+@JsonAdapter(ChessBoard.GsonAdapter.class)
 public class ChessBoard {
+    private static final int WHITE_PIECES = 12;
+    private static final int BLACK_PIECES = 13;
+    /* FEN letters for the white pieces, in PieceType order. */
+    private static final String FEN_PIECES = "KQBNRP";
+
     private ChessPiece[][] pieces;
+    /**
+     * One bitboard per color and piece type followed by the two color occupancy masks.
+     * Built from the pieces array the first time the engine asks for it, which also covers boards read back by Gson.
+     */
+    private transient long[] bitboards;
+    /**
+     * Zobrist key of the piece placement, kept up to date alongside the bitboards.
+     */
+    private transient long pieceKey;
+    /**
+     * Running evaluation terms, also kept alongside the bitboards: material per color, the middlegame and
+     * endgame piece-square totals from white's side, and the game phase. See {@link Evaluation}.
+     */
+    private transient int[] material;
+    private transient int middlegame;
+    private transient int endgame;
+    private transient int phase;
 
     public ChessBoard() {
         pieces = new ChessPiece[8][8];
@@ -15,9 +46,24 @@ public class ChessBoard {
      * Adds a chess piece to the chessboard.
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        pieces[8 - position.getRow()][position.getColumn() - 1] = piece;
+        setPiece(Bitboards.square(position), piece);
+    }
+
+    /**
+     * Square-indexed addPiece for the make/unmake path, which has no ChessPosition to hand.
+     */
+    void setPiece(int square, ChessPiece piece) {
+        int row = 7 - (square >>> 3), column = square & 7;
+        if (bitboards != null) {
+            unindex(pieces[row][column], square);
+            index(piece, square);
+        }
+        pieces[row][column] = piece;
     }
 
+    /**
+     * The board as rows from 8 down to 1. Changes should go through addPiece so the bitboards stay in step.
+     */
     public ChessPiece[][] getPieces() {
         return pieces;
     }
@@ -29,11 +75,110 @@ public class ChessBoard {
         return pieces[8 - position.getRow()][position.getColumn() - 1];
     }
 
+    ChessPiece getPiece(int square) {
+        return pieces[7 - (square >>> 3)][square & 7];
+    }
+
+    long bitboard(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return bitboards()[color.ordinal() * 6 + type.ordinal()];
+    }
+
+    /**
+     * The bitboard for a piece index, as returned by ChessPiece.index.
+     */
+    long bitboard(int pieceIndex) {
+        return bitboards()[pieceIndex];
+    }
+
+    long occupancy(ChessGame.TeamColor color) {
+        return bitboards()[color == ChessGame.TeamColor.WHITE ? WHITE_PIECES : BLACK_PIECES];
+    }
+
+    long occupied() {
+        long[] boards = bitboards();
+        return boards[WHITE_PIECES] | boards[BLACK_PIECES];
+    }
+
+    /**
+     * Zobrist key of where the pieces stand, without side to move or any other game state.
+     */
+    long pieceKey() {
+        bitboards();
+        return pieceKey;
+    }
+
+    /**
+     * Total value of the color's pieces, kings excluded.
+     */
+    int material(ChessGame.TeamColor color) {
+        bitboards();
+        return material[color.ordinal()];
+    }
+
+    int middlegame() {
+        bitboards();
+        return middlegame;
+    }
+
+    int endgame() {
+        bitboards();
+        return endgame;
+    }
+
+    int phase() {
+        bitboards();
+        return phase;
+    }
+
+    private long[] bitboards() {
+        if (bitboards == null) {
+            bitboards = new long[14];
+            pieceKey = 0;
+            material = new int[2];
+            middlegame = 0;
+            endgame = 0;
+            phase = 0;
+            for (int square = 0; square < 64; square++) {
+                index(getPiece(square), square);
+            }
+        }
+        return bitboards;
+    }
+
+    private void index(ChessPiece piece, int square) {
+        if (piece != null) {
+            long bit = 1L << square;
+            bitboards[piece.index()] |= bit;
+            bitboards[piece.getTeamColor() == ChessGame.TeamColor.WHITE ? WHITE_PIECES : BLACK_PIECES] |= bit;
+            pieceKey ^= Zobrist.piece(piece, square);
+            int index = piece.index(), type = piece.getPieceType().ordinal();
+            material[piece.getTeamColor().ordinal()] += Evaluation.PIECE_VALUES[type];
+            middlegame += Evaluation.MIDDLEGAME[index][square];
+            endgame += Evaluation.ENDGAME[index][square];
+            phase += Evaluation.PHASES[type];
+        }
+    }
+
+    private void unindex(ChessPiece piece, int square) {
+        if (piece != null) {
+            long bit = 1L << square;
+            bitboards[piece.index()] &= ~bit;
+            bitboards[piece.getTeamColor() == ChessGame.TeamColor.WHITE ? WHITE_PIECES : BLACK_PIECES] &= ~bit;
+            pieceKey ^= Zobrist.piece(piece, square);
+            int index = piece.index(), type = piece.getPieceType().ordinal();
+            material[piece.getTeamColor().ordinal()] -= Evaluation.PIECE_VALUES[type];
+            middlegame -= Evaluation.MIDDLEGAME[index][square];
+            endgame -= Evaluation.ENDGAME[index][square];
+            phase -= Evaluation.PHASES[type];
+        }
+    }
+
     /**
      * Sets the board to the default starting board.
      */
     public void resetBoard() {
         pieces = new ChessPiece[8][8];
+        bitboards = null;
         setBoard(ChessGame.TeamColor.WHITE, 1, 2);
         setBoard(ChessGame.TeamColor.BLACK, 8, 7);
     }
@@ -43,20 +188,105 @@ public class ChessBoard {
      * Exists to limit duplicate code.
      */
     private void setBoard(ChessGame.TeamColor color, int side, int pawnLayer) {
-        addPiece(new ChessPosition(side, 1), new ChessPiece(color, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(side, 2), new ChessPiece(color, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(side, 3), new ChessPiece(color, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(side, 4), new ChessPiece(color, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(side, 5), new ChessPiece(color, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(side, 6), new ChessPiece(color, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(side, 7), new ChessPiece(color, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(side, 8), new ChessPiece(color, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(side, 1), ChessPiece.of(color, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(side, 2), ChessPiece.of(color, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(side, 3), ChessPiece.of(color, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(side, 4), ChessPiece.of(color, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(side, 5), ChessPiece.of(color, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(side, 6), ChessPiece.of(color, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(side, 7), ChessPiece.of(color, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(side, 8), ChessPiece.of(color, ChessPiece.PieceType.ROOK));
 
         for (int column = 1; column < pieces.length + 1; column++) {
-            addPiece(new ChessPosition(pawnLayer, column), new ChessPiece(color, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(pawnLayer, column), ChessPiece.of(color, ChessPiece.PieceType.PAWN));
+        }
+    }
+
+    /**
+     * An independent board with the same pieces. Pieces are shared instances, so only the arrays are copied.
+     */
+    public ChessBoard copy() {
+        ChessBoard copy = new ChessBoard();
+        for (int row = 0; row < 8; row++) {
+            copy.pieces[row] = pieces[row].clone();
+        }
+        copy.bitboards = bitboards().clone();
+        copy.pieceKey = pieceKey;
+        copy.material = material.clone();
+        copy.middlegame = middlegame;
+        copy.endgame = endgame;
+        copy.phase = phase;
+        return copy;
+    }
+
+    /**
+     * Appends where the pieces stand as the first field of FEN: rank 8 to rank 1, each from the a file.
+     */
+    void appendPlacement(StringBuilder out) {
+        for (int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for (int column = 0; column < 8; column++) {
+                ChessPiece piece = getPiece(row * 8 + column);
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    out.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                char letter = FEN_PIECES.charAt(piece.getPieceType().ordinal());
+                out.append(piece.getTeamColor() == ChessGame.TeamColor.WHITE ? letter : Character.toLowerCase(letter));
+            }
+            if (empty > 0) {
+                out.append((char) ('0' + empty));
+            }
+            if (row > 0) {
+                out.append('/');
+            }
         }
     }
 
+    /**
+     * Places pieces on this empty board from the first field of FEN at the start of the text.
+     *
+     * @return the index just past the field, at a space or the end of the text, or -1 if the field is not valid
+     */
+    int readPlacement(CharSequence text) {
+        int length = text.length();
+        int i = 0, row = 7, column = 0;
+        for (; i < length && text.charAt(i) != ' '; i++) {
+            char c = text.charAt(i);
+            if (c == '/') {
+                if (column != 8 || row == 0) {
+                    return -1;
+                }
+                row--;
+                column = 0;
+            } else if (c >= '1' && c <= '8') {
+                column += c - '0';
+            } else {
+                ChessPiece piece = fenPiece(c);
+                if (piece == null || column > 7) {
+                    return -1;
+                }
+                setPiece(row * 8 + column++, piece);
+            }
+            if (column > 8) {
+                return -1;
+            }
+        }
+        return row == 0 && column == 8 ? i : -1;
+    }
+
+    private static ChessPiece fenPiece(char c) {
+        int type = FEN_PIECES.indexOf(Character.toUpperCase(c));
+        if (type < 0) {
+            return null;
+        }
+        return ChessPiece.piece(Character.isUpperCase(c) ? type : 6 + type);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -71,7 +301,7 @@ public class ChessBoard {
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(pieces);
+        return Long.hashCode(pieceKey());
     }
 
     @Override
@@ -80,4 +310,76 @@ public class ChessBoard {
                 "pieces=" + Arrays.deepToString(pieces) +
                 '}';
     }
+
+    /**
+     * Writes the board as its FEN placement, about 40 characters instead of 64 nested piece objects.
+     * Boards saved in the older layout, an object holding the pieces array, are still read.
+     */
+    static final class GsonAdapter extends TypeAdapter<ChessBoard> {
+        @Override
+        public void write(JsonWriter out, ChessBoard board) throws IOException {
+            StringBuilder placement = new StringBuilder(72);
+            board.appendPlacement(placement);
+            out.value(placement.toString());
+        }
+
+        @Override
+        public ChessBoard read(JsonReader in) throws IOException {
+            ChessBoard board = new ChessBoard();
+            if (in.peek() != JsonToken.BEGIN_OBJECT) {
+                String placement = in.nextString();
+                if (board.readPlacement(placement) != placement.length()) {
+                    throw new JsonSyntaxException("Invalid board: " + placement + " at " + in.getPath());
+                }
+                return board;
+            }
+            in.beginObject();
+            while (in.hasNext()) {
+                if (in.nextName().equals("pieces") && in.peek() == JsonToken.BEGIN_ARRAY) {
+                    readPieces(in, board);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return board;
+        }
+
+        private static void readPieces(JsonReader in, ChessBoard board) throws IOException {
+            in.beginArray();
+            for (int row = 0; in.hasNext(); row++) {
+                in.beginArray();
+                for (int column = 0; in.hasNext(); column++) {
+                    ChessPiece piece = readPiece(in);
+                    if (row < 8 && column < 8) {
+                        board.pieces[row][column] = piece;
+                    }
+                }
+                in.endArray();
+            }
+            in.endArray();
+        }
+
+        private static ChessPiece readPiece(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            ChessGame.TeamColor color = null;
+            ChessPiece.PieceType type = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "color", "pieceColor" -> color = ChessGame.TeamColor.valueOf(in.nextString());
+                    case "type" -> type = ChessPiece.PieceType.valueOf(in.nextString());
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (color == null || type == null) {
+                throw new JsonSyntaxException("Incomplete piece at " + in.getPath());
+            }
+            return ChessPiece.of(color, type);
+        }
+    }
 }
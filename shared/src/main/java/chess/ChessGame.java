@@ -1,20 +1,117 @@
 package chess;
 
-import java.util.ArrayList;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Objects;
 
 
+@JsonAdapter(ChessGame.GsonAdapter.class)
 public class ChessGame {
+    private static final int ALL_CASTLING = MoveGenerator.WHITE_KINGSIDE | MoveGenerator.WHITE_QUEENSIDE
+            | MoveGenerator.BLACK_KINGSIDE | MoveGenerator.BLACK_QUEENSIDE;
+    /**
+     * Castling rights that survive a move touching each square: moving a king or rook, or capturing a rook, clears them.
+     */
+    private static final int[] CASTLING_KEPT = new int[64];
+    private static final long PROMOTION_FLAG = 1L << 20;
+    private static final long CASTLE_FLAG = 1L << 21;
+    private static final long EN_PASSANT_FLAG = 1L << 22;
+    private static final int FIFTY_MOVES = 100;
+
+    static {
+        Arrays.fill(CASTLING_KEPT, ALL_CASTLING);
+        CASTLING_KEPT[0] &= ~MoveGenerator.WHITE_QUEENSIDE;
+        CASTLING_KEPT[4] &= ~(MoveGenerator.WHITE_KINGSIDE | MoveGenerator.WHITE_QUEENSIDE);
+        CASTLING_KEPT[7] &= ~MoveGenerator.WHITE_KINGSIDE;
+        CASTLING_KEPT[56] &= ~MoveGenerator.BLACK_QUEENSIDE;
+        CASTLING_KEPT[60] &= ~(MoveGenerator.BLACK_KINGSIDE | MoveGenerator.BLACK_QUEENSIDE);
+        CASTLING_KEPT[63] &= ~MoveGenerator.BLACK_KINGSIDE;
+    }
+
     private TeamColor teamTurn;
     private ChessBoard board;
     private boolean gameOver;
+    /**
+     * Castling rights still held, as MoveGenerator's WHITE_KINGSIDE through BLACK_QUEENSIDE flags.
+     */
+    private int castlingRights;
+    /**
+     * Square the side to move can capture onto en passant, or -1. Only set when an enemy pawn is beside the pawn that moved.
+     */
+    private int enPassantSquare;
+    /**
+     * Plies since the last capture or pawn move, for the fifty-move rule.
+     */
+    private int halfmoveClock;
+    /**
+     * Number of the current full move, starting at 1 and going up after each black move, as FEN counts them.
+     */
+    private int fullmoveNumber;
+    /**
+     * Key of every position reached by moves since the board was set, oldest first, with historyLength in use.
+     * Saved with the game so repetitions are still seen after it is reloaded.
+     */
+    private long[] history;
+    private int historyLength;
+    /**
+     * How often each key in history occurs. Rebuilt from history when missing, as it is after loading.
+     */
+    private transient RepetitionTable repetitions;
+    /**
+     * Undo records for doMove, one packed long per move. See pushUndo for the layout.
+     */
+    private transient long[] undoStack = new long[256];
+    private transient int undoCount;
+    /**
+     * Buffer for the yes/no questions that only need to know whether a move exists.
+     */
+    private transient MoveList scratch;
+    /**
+     * Status of the position with key statusKey, worked out on the first getStatus call after a move.
+     */
+    private transient GameStatus status;
+    private transient long statusKey;
 
     public ChessGame() {
         teamTurn = TeamColor.WHITE;
         board = new ChessBoard();
         board.resetBoard();
         gameOver = false;
+        castlingRights = ALL_CASTLING;
+        enPassantSquare = -1;
+        fullmoveNumber = 1;
+    }
+
+    /* For fromFen and copy, which fill in every field themselves. */
+    private ChessGame(ChessBoard board) {
+        this.board = board;
+        enPassantSquare = -1;
+        fullmoveNumber = 1;
+    }
+
+    /**
+     * An independent game in the same position with the same history, for handing to another thread.
+     * Moves played on the copy cannot be taken back past the point it was made.
+     */
+    public ChessGame copy() {
+        ChessGame copy = new ChessGame(board.copy());
+        copy.teamTurn = teamTurn;
+        copy.gameOver = gameOver;
+        copy.castlingRights = castlingRights;
+        copy.enPassantSquare = enPassantSquare;
+        copy.halfmoveClock = halfmoveClock;
+        copy.fullmoveNumber = fullmoveNumber;
+        copy.history = history == null ? null : history.clone();
+        copy.historyLength = historyLength;
+        return copy;
     }
 
     public TeamColor getTeamTurn() {
@@ -24,6 +121,8 @@ public class ChessGame {
 
     public void setTeamTurn(TeamColor team) {
         this.teamTurn = team;
+        status = null;
+        clearHistory();
     }
 
     public boolean isGameOver(){
@@ -39,6 +138,27 @@ public class ChessGame {
         BLACK
     }
 
+    /**
+     * Where the game stands for the team to move.
+     */
+    public enum GameStatus {
+        NORMAL,
+        CHECK,
+        CHECKMATE,
+        STALEMATE,
+        INSUFFICIENT_MATERIAL,
+        THREEFOLD_REPETITION,
+        FIFTY_MOVE_RULE;
+
+        public boolean isGameOver() {
+            return this != NORMAL && this != CHECK;
+        }
+
+        public boolean isDraw() {
+            return isGameOver() && this != CHECKMATE;
+        }
+    }
+
     /**
      * Gets a valid moves for a piece at the given location
      *
@@ -48,14 +168,47 @@ public class ChessGame {
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
         ChessPiece piece = board.getPiece(startPosition);
-        Collection<ChessMove> moves = piece.pieceMoves(board, startPosition);
-        Collection<ChessMove> validOnes = new ArrayList<>();
-        for (ChessMove move : moves) {
-            if (!willBeInCheck(piece.getTeamColor(), move)) {
-                validOnes.add(move);
-            }
+        if (piece == null) {
+            return null;
         }
-        return validOnes;
+        return legalMoves(piece.getTeamColor(), 1L << Bitboards.square(startPosition));
+    }
+
+    /**
+     * Gets every legal move for a team, including castling and en passant when they are available.
+     */
+    public Collection<ChessMove> validMoves(TeamColor teamColor) {
+        return legalMoves(teamColor, -1L);
+    }
+
+    private Collection<ChessMove> legalMoves(TeamColor teamColor, long from) {
+        MoveList moves = new MoveList();
+        legalMoves(teamColor, from, moves);
+        return moves.toChessMoves();
+    }
+
+    /**
+     * Fills the list with every legal move for the team to move, packed as ints (see {@link Moves}).
+     * The list is cleared first. Nothing is allocated while the list has room, so searches can keep
+     * one list per depth and generate moves at every node without touching the heap.
+     */
+    public void generateMoves(MoveList moves) {
+        legalMoves(teamTurn, -1L, moves);
+    }
+
+    /**
+     * Like generateMoves, but only for the pieces on the squares in the from mask and only the kinds of
+     * move asked for, as MoveGenerator.TACTICAL and QUIET.
+     */
+    void generateMoves(long from, int kinds, MoveList moves) {
+        moves.clear();
+        MoveGenerator.legalMoves(board, teamTurn, castlingRights, enPassantSquare, from, kinds, moves);
+    }
+
+    private void legalMoves(TeamColor teamColor, long from, MoveList moves) {
+        moves.clear();
+        int enPassant = teamColor == teamTurn ? enPassantSquare : -1;
+        MoveGenerator.legalMoves(board, teamColor, castlingRights, enPassant, from, moves);
     }
 
     /**
@@ -68,111 +221,489 @@ public class ChessGame {
         ChessPosition start = move.getStartPosition();
         if (board.getPieces()[8 - start.getRow()][start.getColumn() - 1] != null &&
                 validMoves(start).contains(move) && board.getPiece(start).getTeamColor() == teamTurn) {
-            if (move.getPromotionPiece() == null) {
-                board.addPiece(move.getEndPosition(), board.getPiece(start));
-                board.addPiece(start, null);
-            } else {
-                board.addPiece(move.getEndPosition(), new ChessPiece(this.teamTurn, move.getPromotionPiece()));
-                board.addPiece(start, null);
-            }
-            if (teamTurn == TeamColor.WHITE) {
-                setTeamTurn(TeamColor.BLACK);
-            } else {
-                setTeamTurn(TeamColor.WHITE);
-            }
+            doMove(move);
         } else {
             throw new InvalidMoveException(move.toString() + " is invalid.");
         }
     }
 
-    private Collection<ChessMove> getPossibleMoves(TeamColor teamColor) {
-        Collection<ChessMove> moves = new ArrayList<>();
-        for (int i = 1; i < board.getPieces().length + 1; i++) {
-            for (int j = 1; j < board.getPieces().length + 1; j++) {
-                if (board.getPieces()[8 - i][j - 1] != null) {
-                    ChessPosition position = new ChessPosition(i, j);
-                    if (board.getPiece(position).getTeamColor() == teamColor) {
-                        moves.addAll(board.getPiece(position).pieceMoves(board, position));
-                    }
-                }
+    /**
+     * Plays a move without checking that it is legal and records how to take it back.
+     * Every doMove must be matched by an undoMove before the board is used for anything else.
+     * Nothing is allocated once the undo stack has grown to the search depth.
+     */
+    public void doMove(ChessMove move) {
+        doMove(Moves.encode(move));
+    }
+
+    /**
+     * doMove for a packed move. Only the squares and promotion are read, so moves packed without flags work too.
+     */
+    public void doMove(int move) {
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        ChessPiece moved = board.getPiece(from);
+        ChessPiece captured = board.getPiece(to);
+        ChessPiece.PieceType promotion = Moves.promotion(move);
+        status = null;
+        repetitions();
+        ChessPiece.PieceType type = moved.getPieceType();
+        boolean castle = type == ChessPiece.PieceType.KING && Math.abs(to - from) == 2;
+        boolean enPassant = type == ChessPiece.PieceType.PAWN && to == enPassantSquare && captured == null;
+        pushUndo(from, to, moved, captured, promotion != null, castle, enPassant);
+
+        board.setPiece(from, null);
+        board.setPiece(to, promotion == null ? moved : ChessPiece.of(moved.getTeamColor(), promotion));
+        if (castle) {
+            int rookFrom = to > from ? to + 1 : to - 2;
+            board.setPiece((from + to) / 2, board.getPiece(rookFrom));
+            board.setPiece(rookFrom, null);
+        } else if (enPassant) {
+            board.setPiece(behind(to), null);
+        }
+
+        castlingRights &= CASTLING_KEPT[from] & CASTLING_KEPT[to];
+        enPassantSquare = -1;
+        if (type == ChessPiece.PieceType.PAWN && Math.abs(to - from) == 16) {
+            int skipped = (from + to) / 2;
+            TeamColor mover = moved.getTeamColor();
+            if ((Bitboards.pawnAttacks(mover, skipped)
+                    & board.bitboard(opponent(mover), ChessPiece.PieceType.PAWN)) != 0) {
+                enPassantSquare = skipped;
             }
         }
-        return moves;
+        teamTurn = opponent(teamTurn);
+        if (teamTurn == TeamColor.WHITE) {
+            fullmoveNumber++;
+        }
+        halfmoveClock = type == ChessPiece.PieceType.PAWN || captured != null ? 0 : halfmoveClock + 1;
+        recordPosition();
+    }
+
+    /**
+     * Takes back the most recent doMove, restoring the board, team turn and castling and en passant rights exactly.
+     */
+    public void undoMove() {
+        long record = undoStack[--undoCount];
+        status = null;
+        int from = (int) (record & 63);
+        int to = (int) ((record >>> 6) & 63);
+        ChessPiece moved = ChessPiece.piece((int) ((record >>> 12) & 15));
+        int captured = (int) ((record >>> 16) & 15);
+        teamTurn = opponent(teamTurn);
+        if (teamTurn == TeamColor.BLACK) {
+            fullmoveNumber--;
+        }
+        castlingRights = (int) ((record >>> 23) & 15);
+        enPassantSquare = (int) ((record >>> 27) & 127) - 1;
+        halfmoveClock = (int) ((record >>> 34) & 1023);
+        repetitions.decrement(history[--historyLength]);
+
+        board.setPiece(to, captured == 0 ? null : ChessPiece.piece(captured - 1));
+        board.setPiece(from, moved);
+        if ((record & CASTLE_FLAG) != 0) {
+            int rookFrom = to > from ? to + 1 : to - 2;
+            board.setPiece(rookFrom, board.getPiece((from + to) / 2));
+            board.setPiece((from + to) / 2, null);
+        } else if ((record & EN_PASSANT_FLAG) != 0) {
+            board.setPiece(behind(to), ChessPiece.of(opponent(moved.getTeamColor()), ChessPiece.PieceType.PAWN));
+        }
+    }
+
+    /**
+     * Packs an undo record: from square in bits 0-5, to square in bits 6-11, moved piece index in
+     * bits 12-15, captured piece index plus one in bits 16-19 (zero for none), promotion, castle and
+     * en passant flags in bits 20-22, the prior castling rights in bits 23-26, the prior en passant
+     * square plus one in bits 27-33 and the prior halfmove clock in bits 34-43.
+     */
+    private void pushUndo(int from, int to, ChessPiece moved, ChessPiece captured, boolean promotion,
+                          boolean castle, boolean enPassant) {
+        if (undoCount == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoCount * 2);
+        }
+        long record = from | (long) to << 6 | (long) moved.index() << 12
+                | (long) castlingRights << 23 | (long) (enPassantSquare + 1) << 27
+                | (long) Math.min(halfmoveClock, 1023) << 34;
+        if (captured != null) {
+            record |= (long) (captured.index() + 1) << 16;
+        }
+        if (promotion) {
+            record |= PROMOTION_FLAG;
+        }
+        if (castle) {
+            record |= CASTLE_FLAG;
+        }
+        if (enPassant) {
+            record |= EN_PASSANT_FLAG;
+        }
+        undoStack[undoCount++] = record;
+    }
+
+    /**
+     * The repetition counts, seeding the history with the current position or rebuilding the counts
+     * from a loaded history the first time they are needed.
+     */
+    private RepetitionTable repetitions() {
+        if (historyLength == 0) {
+            recordPosition();
+        } else if (repetitions == null) {
+            repetitions = new RepetitionTable();
+            for (int i = 0; i < historyLength; i++) {
+                repetitions.increment(history[i]);
+            }
+        }
+        return repetitions;
+    }
+
+    /**
+     * Appends the current position to the history and returns how many times it has now occurred.
+     */
+    private int recordPosition() {
+        if (history == null) {
+            history = new long[64];
+        } else if (historyLength == history.length) {
+            history = Arrays.copyOf(history, historyLength * 2);
+        }
+        if (repetitions == null) {
+            repetitions = new RepetitionTable();
+        }
+        long key = positionKey();
+        history[historyLength++] = key;
+        return repetitions.increment(key);
+    }
+
+    private void clearHistory() {
+        halfmoveClock = 0;
+        historyLength = 0;
+        history = null;
+        repetitions = null;
+    }
+
+    /** The square of the pawn an en passant capture onto this square takes. */
+    private int behind(int enPassantTarget) {
+        return enPassantTarget < 32 ? enPassantTarget + 8 : enPassantTarget - 8;
+    }
+
+    static TeamColor opponent(TeamColor teamColor) {
+        return teamColor == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
     }
 
 
     public boolean isInCheck(TeamColor teamColor) {
-        Collection<ChessMove> possibleMoves = new ArrayList<>();
-        if(teamColor == TeamColor.WHITE){possibleMoves = getPossibleMoves(TeamColor.BLACK);}
-        else{possibleMoves = getPossibleMoves(TeamColor.WHITE);}
-        for (ChessMove move : possibleMoves) {
-            ChessPiece piece = board.getPiece(move.getEndPosition());
-            if (board.getPiece(move.getEndPosition()) != null && piece.getPieceType() == ChessPiece.PieceType.KING) {
-                if(piece.getTeamColor() == teamColor){return true;}
+        TeamColor attacker = opponent(teamColor);
+        for (long kings = board.bitboard(teamColor, ChessPiece.PieceType.KING); kings != 0; kings &= kings - 1) {
+            if (Bitboards.isAttacked(board, Long.numberOfTrailingZeros(kings), attacker)) {
+                return true;
             }
         }
         return false;
     }
 
 
-    /** Used by isInStalemate and isInCheckMate to see if a piece will be in check if a certain move is made.*/
-    private boolean willBeInCheck(TeamColor teamColor, ChessMove move) {
-        ChessPiece temp = board.getPiece(move.getEndPosition());
-        board.addPiece(move.getEndPosition(), board.getPiece(move.getStartPosition()));
-        board.addPiece(move.getStartPosition(), null);
+    private boolean hasLegalMove(TeamColor teamColor) {
+        if (scratch == null) {
+            scratch = new MoveList();
+        }
+        legalMoves(teamColor, -1L, scratch);
+        return !scratch.isEmpty();
+    }
+
+
+    public boolean isInStalemate(TeamColor teamColor) {
+        return !isInCheck(teamColor) && !hasLegalMove(teamColor);
+    }
+
+    public boolean isInCheckmate(TeamColor teamColor) {
+        return isInCheck(teamColor) && !hasLegalMove(teamColor);
+    }
+
+    /**
+     * The castling rights still held, as MoveGenerator's flags.
+     */
+    int castlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * The square the side to move could capture onto en passant, or -1.
+     */
+    int enPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * Plies played since the last capture or pawn move.
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * The full move being played, as FEN numbers it.
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * How many times the current position has come up, counting this time. Used by the search to score
+     * repeated positions as draws without generating their moves.
+     */
+    int repetitionCount() {
+        return repetitions().count(positionKey());
+    }
+
+    /**
+     * Check, checkmate, stalemate or a draw for the team to move, from one check test and at most one
+     * move generation. The answer is kept until the position changes, so asking again after a move is free.
+     * Pieces added straight to the board are noticed too, since the cache is tied to the position key.
+     * Repetitions count the positions reached by moves since the board or team turn was last set.
+     */
+    public GameStatus getStatus() {
+        long key = positionKey();
+        if (status == null || statusKey != key) {
+            status = computeStatus();
+            statusKey = key;
+        }
+        return status;
+    }
 
-        if (isInCheck(teamColor)) {
-            ChessMove backMove = new ChessMove(move.getEndPosition(), move.getStartPosition(), move.getPromotionPiece());
-            board.addPiece(move.getStartPosition(), board.getPiece(move.getEndPosition()));
-            board.addPiece(backMove.getStartPosition(), temp);
+    private GameStatus computeStatus() {
+        boolean check = isInCheck(teamTurn);
+        if (!hasLegalMove(teamTurn)) {
+            return check ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+        }
+        if (repetitionCount() >= 3) {
+            return GameStatus.THREEFOLD_REPETITION;
+        }
+        if (halfmoveClock >= FIFTY_MOVES) {
+            return GameStatus.FIFTY_MOVE_RULE;
+        }
+        if (check) {
+            return GameStatus.CHECK;
+        }
+        return insufficientMaterial() ? GameStatus.INSUFFICIENT_MATERIAL : GameStatus.NORMAL;
+    }
+
+    /**
+     * Neither side can ever mate: no pawns, rooks or queens, and at most one knight or bishop, or only
+     * bishops that all stand on squares of one color.
+     */
+    private boolean insufficientMaterial() {
+        long heavy = 0, knights = 0, bishops = 0;
+        for (TeamColor color : TeamColor.values()) {
+            heavy |= board.bitboard(color, ChessPiece.PieceType.PAWN) | board.bitboard(color, ChessPiece.PieceType.ROOK)
+                    | board.bitboard(color, ChessPiece.PieceType.QUEEN);
+            knights |= board.bitboard(color, ChessPiece.PieceType.KNIGHT);
+            bishops |= board.bitboard(color, ChessPiece.PieceType.BISHOP);
+        }
+        if (heavy != 0) {
+            return false;
+        }
+        long minors = knights | bishops;
+        if ((minors & (minors - 1)) == 0) {
             return true;
         }
+        long darkSquares = 0xAA55AA55AA55AA55L;
+        return knights == 0 && ((bishops & darkSquares) == 0 || (bishops & ~darkSquares) == 0);
+    }
 
-        ChessMove backMove = new ChessMove(move.getEndPosition(), move.getStartPosition(), move.getPromotionPiece());
-        board.addPiece(backMove.getEndPosition(), board.getPiece(backMove.getStartPosition()));
-        board.addPiece(backMove.getStartPosition(), temp);
-        return false;
+
+    /**
+     * Replaces the board. A king and rook still on their starting squares are taken to be able to castle.
+     */
+    public void setBoard(ChessBoard board) {
+        this.board = board;
+        undoCount = 0;
+        status = null;
+        clearHistory();
+        enPassantSquare = -1;
+        castlingRights = homeCastlingRights(board);
     }
 
+    /**
+     * The castling rights of each king and rook still on their starting squares, for a board that came without any.
+     */
+    private static int homeCastlingRights(ChessBoard board) {
+        int rights = 0;
+        for (TeamColor color : TeamColor.values()) {
+            int home = color == TeamColor.WHITE ? 4 : 60;
+            int shift = color == TeamColor.WHITE ? 0 : 2;
+            long rooks = board.bitboard(color, ChessPiece.PieceType.ROOK);
+            if ((board.bitboard(color, ChessPiece.PieceType.KING) & (1L << home)) != 0) {
+                if ((rooks & (1L << (home + 3))) != 0) {
+                    rights |= MoveGenerator.WHITE_KINGSIDE << shift;
+                }
+                if ((rooks & (1L << (home - 4))) != 0) {
+                    rights |= MoveGenerator.WHITE_QUEENSIDE << shift;
+                }
+            }
+        }
+        return rights;
+    }
 
-    public boolean isInStalemate(TeamColor teamColor) {
-        if (isInCheck(teamColor)) {
-            return false;
+
+    public ChessBoard getBoard() {
+        return board;
+    }
+
+    /**
+     * Reads a position in Forsyth-Edwards Notation: the pieces, team to move, castling rights, en passant
+     * square, halfmove clock and move number. The two counts may be left off and then start at 0 and 1.
+     * The text is read in one pass with no intermediate strings. An en passant square must be empty, on the
+     * rank the side to move captures onto, with an enemy pawn in front of it. It is only kept when a pawn can
+     * actually capture onto it, the same rule doMove follows, so equal positions get equal keys.
+     *
+     * @throws IllegalArgumentException if the text is not valid FEN
+     */
+    public static ChessGame fromFen(String fen) {
+        ChessBoard board = new ChessBoard();
+        int length = fen.length();
+        int i = board.readPlacement(fen);
+        if (i < 0 || i + 2 >= length) {
+            throw badFen(fen);
+        }
+
+        ChessGame game = new ChessGame(board);
+        char turn = fen.charAt(++i);
+        if (turn != 'w' && turn != 'b') {
+            throw badFen(fen);
+        }
+        game.teamTurn = turn == 'w' ? TeamColor.WHITE : TeamColor.BLACK;
+
+        i = nextField(fen, i + 1);
+        if (fen.charAt(i) == '-') {
+            i++;
+        } else {
+            for (; i < length && fen.charAt(i) != ' '; i++) {
+                int flag = switch (fen.charAt(i)) {
+                    case 'K' -> MoveGenerator.WHITE_KINGSIDE;
+                    case 'Q' -> MoveGenerator.WHITE_QUEENSIDE;
+                    case 'k' -> MoveGenerator.BLACK_KINGSIDE;
+                    case 'q' -> MoveGenerator.BLACK_QUEENSIDE;
+                    default -> throw badFen(fen);
+                };
+                game.castlingRights |= flag;
+            }
+        }
+
+        i = nextField(fen, i);
+        if (fen.charAt(i) == '-') {
+            i++;
+        } else {
+            char file = fen.charAt(i), rank = i + 1 < length ? fen.charAt(i + 1) : ' ';
+            /* The target is behind a pawn that just moved two squares: rank 6 with white to move, rank 3 with black. */
+            if (file < 'a' || file > 'h' || rank != (game.teamTurn == TeamColor.WHITE ? '6' : '3')) {
+                throw badFen(fen);
+            }
+            int square = (rank - '1') * 8 + (file - 'a');
+            int pawn = game.teamTurn == TeamColor.WHITE ? square - 8 : square + 8;
+            if (board.getPiece(square) != null
+                    || (board.bitboard(opponent(game.teamTurn), ChessPiece.PieceType.PAWN) & (1L << pawn)) == 0) {
+                throw badFen(fen);
+            }
+            if ((Bitboards.pawnAttacks(opponent(game.teamTurn), square)
+                    & board.bitboard(game.teamTurn, ChessPiece.PieceType.PAWN)) != 0) {
+                game.enPassantSquare = square;
+            }
+            i += 2;
         }
-        boolean isStalemate = false;
-        Collection<ChessMove> moves = getPossibleMoves(teamColor);
-        for (ChessMove move : moves) {
-            if (!willBeInCheck(teamColor, move)) {
-                return false;
-            } else {
-                isStalemate = true;
+
+        if (i < length) {
+            i = nextField(fen, i);
+            int end = fieldEnd(fen, i);
+            game.halfmoveClock = parseCount(fen, i, end);
+            if (end < length) {
+                i = nextField(fen, end);
+                end = fieldEnd(fen, i);
+                game.fullmoveNumber = Math.max(parseCount(fen, i, end), 1);
+            }
+            if (end != length) {
+                throw badFen(fen);
             }
         }
-        return isStalemate;
+        return game;
     }
 
-    public boolean isInCheckmate(TeamColor teamColor) {
-        boolean isCheckmate = false;
-        Collection<ChessMove> moves = getPossibleMoves(teamColor);
-        if (isInCheck(teamColor)) {
-            for (ChessMove move : moves) {
-                if (!willBeInCheck(teamColor, move)) {
-                    return false;
+    /**
+     * The position in Forsyth-Edwards Notation, as read by fromFen.
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(90);
+        appendPosition(fen);
+        return fen.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber).toString();
+    }
+
+    /**
+     * Appends the first four fields of FEN, everything but the two move counts.
+     */
+    private void appendPosition(StringBuilder fen) {
+        board.appendPlacement(fen);
+        fen.append(teamTurn == TeamColor.WHITE ? " w " : " b ");
+        if (castlingRights == 0) {
+            fen.append('-');
+        } else {
+            for (int flag = 0; flag < 4; flag++) {
+                if ((castlingRights & (1 << flag)) != 0) {
+                    fen.append("KQkq".charAt(flag));
                 }
             }
-            isCheckmate = true;
         }
-        return isCheckmate;
+        fen.append(' ');
+        if (enPassantSquare < 0) {
+            fen.append('-');
+        } else {
+            fen.append((char) ('a' + (enPassantSquare & 7))).append((char) ('1' + (enPassantSquare >>> 3)));
+        }
     }
 
+    /* Steps over the single space before a field, checking the field is there. */
+    private static int nextField(String fen, int i) {
+        if (i + 1 >= fen.length() || fen.charAt(i) != ' ' || fen.charAt(i + 1) == ' ') {
+            throw badFen(fen);
+        }
+        return i + 1;
+    }
 
-    public void setBoard(ChessBoard board) {
-        this.board = board;
+    private static int fieldEnd(String fen, int i) {
+        while (i < fen.length() && fen.charAt(i) != ' ') {
+            i++;
+        }
+        return i;
     }
 
+    private static int parseCount(String fen, int start, int end) {
+        if (start == end || end - start > 6) {
+            throw badFen(fen);
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = fen.charAt(i);
+            if (c < '0' || c > '9') {
+                throw badFen(fen);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
 
-    public ChessBoard getBoard() {
-        return board;
+    private static IllegalArgumentException badFen(String fen) {
+        return new IllegalArgumentException("Invalid FEN: " + fen);
+    }
+
+    /**
+     * 64-bit Zobrist key of the current position: piece placement, side to move, castling rights and
+     * en passant square. The board keeps its part up to date as pieces move, so this never rescans the squares.
+     */
+    public long positionKey() {
+        long key = board.pieceKey() ^ Zobrist.castling(castlingRights);
+        if (teamTurn == TeamColor.BLACK) {
+            key ^= Zobrist.BLACK_TO_MOVE;
+        }
+        if (enPassantSquare >= 0) {
+            key ^= Zobrist.enPassant(enPassantSquare);
+        }
+        return key;
     }
 
     @Override
@@ -180,12 +711,13 @@ public class ChessGame {
         if (this == o) {return true;}
         if (o == null || getClass() != o.getClass()) {return false;}
         ChessGame chessGame = (ChessGame) o;
-        return teamTurn == chessGame.teamTurn && Objects.equals(board, chessGame.board);
+        return teamTurn == chessGame.teamTurn && castlingRights == chessGame.castlingRights
+                && enPassantSquare == chessGame.enPassantSquare && Objects.equals(board, chessGame.board);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(teamTurn, board);
+        return Long.hashCode(positionKey());
     }
 
     @Override
@@ -195,4 +727,139 @@ public class ChessGame {
                 ", board=" + board +
                 '}';
     }
+
+    /**
+     * Writes a game as its FEN, the move counts, whether it is over and the keys of the positions that could
+     * still repeat, those since the last capture or pawn move, as one hex string:
+     * <pre>
+     *     {"fen":"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq -","halfmoveClock":0,"fullmoveNumber":1,
+     *      "gameOver":false}
+     * </pre>
+     * Games saved in the older field-by-field layout are still read.
+     */
+    static final class GsonAdapter extends TypeAdapter<ChessGame> {
+        private static final String HEX = "0123456789abcdef";
+        private static final ChessBoard.GsonAdapter BOARD = new ChessBoard.GsonAdapter();
+
+        @Override
+        public void write(JsonWriter out, ChessGame game) throws IOException {
+            StringBuilder text = new StringBuilder(90);
+            game.appendPosition(text);
+            out.beginObject();
+            out.name("fen").value(text.toString());
+            out.name("halfmoveClock").value(game.halfmoveClock);
+            out.name("fullmoveNumber").value(game.fullmoveNumber);
+            out.name("gameOver").value(game.gameOver);
+            /* Older positions can never come round again, so repetitions are still counted the same after reloading. */
+            int keep = Math.min(game.historyLength, game.halfmoveClock + 1);
+            if (keep > 0) {
+                text.setLength(0);
+                for (int i = game.historyLength - keep; i < game.historyLength; i++) {
+                    long key = game.history[i];
+                    for (int shift = 60; shift >= 0; shift -= 4) {
+                        text.append(HEX.charAt((int) (key >>> shift) & 15));
+                    }
+                }
+                out.name("history").value(text.toString());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public ChessGame read(JsonReader in) throws IOException {
+            ChessGame game = null;
+            ChessBoard board = null;
+            TeamColor turn = TeamColor.WHITE;
+            int castling = -1, enPassant = -1, halfmove = 0, fullmove = 1, length = -1;
+            boolean over = false;
+            long[] history = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "fen" -> game = readFen(in);
+                    case "halfmoveClock" -> halfmove = in.nextInt();
+                    case "fullmoveNumber" -> fullmove = in.nextInt();
+                    case "gameOver" -> over = in.nextBoolean();
+                    case "history" -> history = readHistory(in);
+                    /* The rest are only in the older layout. */
+                    case "teamTurn" -> turn = TeamColor.valueOf(in.nextString());
+                    case "board" -> board = in.peek() == JsonToken.NULL ? skipNull(in) : BOARD.read(in);
+                    case "castlingRights" -> castling = in.nextInt();
+                    case "enPassantSquare" -> enPassant = in.nextInt();
+                    case "historyLength" -> length = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+
+            if (game == null) {
+                game = new ChessGame();
+                if (board != null) {
+                    game.board = board;
+                }
+                game.teamTurn = turn;
+                /* Rows saved before castling was tracked get the rights setBoard would give their board. */
+                game.castlingRights = castling < 0 ? homeCastlingRights(game.board) : castling;
+                game.enPassantSquare = enPassant;
+            }
+            game.halfmoveClock = halfmove;
+            game.fullmoveNumber = Math.max(fullmove, 1);
+            game.gameOver = over;
+            if (history != null && history.length > 0) {
+                game.history = history;
+                game.historyLength = length < 0 ? history.length : Math.min(length, history.length);
+            }
+            return game;
+        }
+
+        private static ChessGame readFen(JsonReader in) throws IOException {
+            String fen = in.nextString();
+            try {
+                return fromFen(fen);
+            } catch (IllegalArgumentException e) {
+                throw new JsonSyntaxException(e.getMessage() + " at " + in.getPath(), e);
+            }
+        }
+
+        private static long[] readHistory(JsonReader in) throws IOException {
+            switch (in.peek()) {
+                case NULL -> {
+                    return skipNull(in);
+                }
+                case STRING -> {
+                    String keys = in.nextString();
+                    if (keys.length() % 16 != 0) {
+                        throw new JsonSyntaxException("Invalid history at " + in.getPath());
+                    }
+                    long[] history = new long[keys.length() / 16];
+                    try {
+                        for (int i = 0; i < history.length; i++) {
+                            history[i] = Long.parseUnsignedLong(keys, i * 16, i * 16 + 16, 16);
+                        }
+                    } catch (NumberFormatException e) {
+                        throw new JsonSyntaxException("Invalid history at " + in.getPath(), e);
+                    }
+                    return history;
+                }
+                default -> {
+                    long[] history = new long[64];
+                    int length = 0;
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        if (length == history.length) {
+                            history = Arrays.copyOf(history, length * 2);
+                        }
+                        history[length++] = in.nextLong();
+                    }
+                    in.endArray();
+                    return Arrays.copyOf(history, length);
+                }
+            }
+        }
+
+        private static <T> T skipNull(JsonReader in) throws IOException {
+            in.nextNull();
+            return null;
+        }
+    }
 }
@@ -4,9 +4,16 @@ import java.util.Objects;
 
 
 public class ChessMove {
-    private ChessPosition start;
-    private ChessPosition end;
-    private ChessPiece.PieceType type;
+    /**
+     * Interned moves, one slot per start square, end square and promotion (none, queen, bishop, knight, rook).
+     * Slots are filled the first time a move is asked for. Two threads racing on an empty slot can each
+     * build an instance, which only costs the sharing, since equals still compares the fields.
+     */
+    private static final ChessMove[] MOVES = new ChessMove[64 * 64 * 5];
+
+    private final ChessPosition start;
+    private final ChessPosition end;
+    private final ChessPiece.PieceType type;
 
     public ChessMove(ChessPosition startPosition, ChessPosition endPosition,
                      ChessPiece.PieceType promotionPiece) {
@@ -15,6 +22,42 @@ public class ChessMove {
         this.type = promotionPiece;
     }
 
+    /**
+     * The shared instance for a move. Moves with an off-board square or a king or pawn promotion
+     * are never produced by the game, so they are built fresh rather than interned.
+     */
+    public static ChessMove of(ChessPosition startPosition, ChessPosition endPosition,
+                               ChessPiece.PieceType promotionPiece) {
+        if (onBoard(startPosition) && onBoard(endPosition) && promotionSlot(promotionPiece) >= 0) {
+            return of(Bitboards.square(startPosition), Bitboards.square(endPosition), promotionPiece);
+        }
+        return new ChessMove(startPosition, endPosition, promotionPiece);
+    }
+
+    static ChessMove of(int from, int to, ChessPiece.PieceType promotionPiece) {
+        int index = (from * 64 + to) * 5 + promotionSlot(promotionPiece);
+        ChessMove move = MOVES[index];
+        if (move == null) {
+            move = new ChessMove(ChessPosition.of(from), ChessPosition.of(to), promotionPiece);
+            MOVES[index] = move;
+        }
+        return move;
+    }
+
+    private static int promotionSlot(ChessPiece.PieceType promotionPiece) {
+        if (promotionPiece == null) {
+            return 0;
+        }
+        return switch (promotionPiece) {
+            case QUEEN, BISHOP, KNIGHT, ROOK -> promotionPiece.ordinal();
+            default -> -1;
+        };
+    }
+
+    private static boolean onBoard(ChessPosition position) {
+        return position != null && position.getRow() >= 1 && position.getRow() <= 8
+                && position.getColumn() >= 1 && position.getColumn() <= 8;
+    }
 
     public ChessPosition getStartPosition() {
         return start;
@@ -44,7 +87,7 @@ public class ChessMove {
 
     @Override
     public int hashCode() {
-        return Objects.hash(start, end, type);
+        return (31 * Objects.hashCode(start) + Objects.hashCode(end)) * 31 + (type == null ? 0 : type.ordinal() + 1);
     }
 
     @Override
@@ -1,14 +1,24 @@
 package chess;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
-import java.util.Objects;
 
 
 public class ChessPiece {
-    private ChessGame.TeamColor color;
-    private PieceType type;
+    /**
+     * One shared instance per color and type, so board updates never have to allocate a piece.
+     */
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[color.ordinal() * 6 + type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
+
+    private final ChessGame.TeamColor color;
+    private final PieceType type;
 
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         this.color = pieceColor;
@@ -35,192 +45,38 @@ public class ChessPiece {
         return type;
     }
 
-
-    /**
-     * Calculates all the positions a chess piece can move to.
-     * Does not take into account moves that are illegal due to leaving the king in danger.
-     */
-    public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        return switch (this.type) {
-            case PieceType.KING -> kingMoves(board, myPosition);
-            case PieceType.QUEEN -> queenMoves(board, myPosition);
-            case PieceType.BISHOP -> bishopMoves(board, myPosition);
-            case PieceType.KNIGHT -> knightMoves(board, myPosition);
-            case PieceType.ROOK -> rookMoves(board, myPosition);
-            case PieceType.PAWN -> pawnMoves(board, myPosition);
-        };
-    }
-
-    private Collection<ChessMove> kingMoves(ChessBoard board, ChessPosition myPosition) {
-        int row = myPosition.getRow(), column = myPosition.getColumn();
-        List<ChessMove> possibleMoves = new ArrayList<>();
-        addMove(row + 1, column, possibleMoves, myPosition, board, null); /* backward */
-        addMove(row - 1, column, possibleMoves, myPosition, board, null); /* forward */
-        addMove(row, column + 1, possibleMoves, myPosition, board, null); /* right */
-        addMove(row, column - 1, possibleMoves, myPosition, board, null); /* left */
-        addMove(row + 1, column + 1, possibleMoves, myPosition, board, null); /* backward right */
-        addMove(row + 1, column - 1, possibleMoves, myPosition, board, null); /* backward left */
-        addMove(row - 1, column + 1, possibleMoves, myPosition, board, null); /* forward right */
-        addMove(row - 1, column - 1, possibleMoves, myPosition, board, null); /* forward left */
-        return possibleMoves;
-    }
-
-    private Collection<ChessMove> queenMoves(ChessBoard board, ChessPosition myPosition) {
-        List<ChessMove> possibleMoves = new ArrayList<>();
-        possibleMoves.addAll(bishopMoves(board, myPosition));
-        possibleMoves.addAll(rookMoves(board, myPosition));
-        return possibleMoves;
-    }
-
-    private Collection<ChessMove> bishopMoves(ChessBoard board, ChessPosition myPosition) {
-        List<ChessMove> possibleMoves = new ArrayList<>();
-        checkMove(1, -1, myPosition, possibleMoves, board); /* backward left */
-        checkMove(-1, -1, myPosition, possibleMoves, board); /* forward left */
-        checkMove(1, 1, myPosition, possibleMoves, board); /* backward right */
-        checkMove(-1, 1, myPosition, possibleMoves, board); /* forward right */
-        return possibleMoves;
-    }
-
-    private Collection<ChessMove> knightMoves(ChessBoard board, ChessPosition myPosition) {
-        List<ChessMove> possibleMoves = new ArrayList<>();
-        int row = myPosition.getRow(), column = myPosition.getColumn();
-        addMove(row + 2, column + 1, possibleMoves, myPosition, board, null); /* backward two right one */
-        addMove(row + 2, column - 1, possibleMoves, myPosition, board, null); /* backward two left one */
-        addMove(row + 1, column + 2, possibleMoves, myPosition, board, null); /* backward one right two */
-        addMove(row + 1, column - 2, possibleMoves, myPosition, board, null); /* backward one left two */
-        addMove(row - 2, column + 1, possibleMoves, myPosition, board, null); /* forward two right one */
-        addMove(row - 2, column - 1, possibleMoves, myPosition, board, null); /* forward two left one */
-        addMove(row - 1, column + 2, possibleMoves, myPosition, board, null); /* forward one right two */
-        addMove(row - 1, column - 2, possibleMoves, myPosition, board, null); /* forward one left two */
-        return possibleMoves;
-    }
-
-    private Collection<ChessMove> rookMoves(ChessBoard board, ChessPosition myPosition) {
-        List<ChessMove> possibleMoves = new ArrayList<>();
-        checkMove(0, -1, myPosition, possibleMoves, board); /* left */
-        checkMove(0, 1, myPosition, possibleMoves, board); /* right */
-        checkMove(1, 0, myPosition, possibleMoves, board); /* backward */
-        checkMove(-1, 0, myPosition, possibleMoves, board); /* forward */
-        return possibleMoves;
-    }
-
-    private Collection<ChessMove> pawnMoves(ChessBoard board, ChessPosition myPosition) {
-        List<ChessMove> possibleMoves = new ArrayList<>();
-        int row = myPosition.getRow(), column = myPosition.getColumn();
-        if (this.color == ChessGame.TeamColor.WHITE) {
-            if (row == 2) {
-                addMove(row + 1, column, possibleMoves, myPosition, board, null);
-                addPawnMove(row + 1, column + 1, possibleMoves, myPosition, board, null);
-                addPawnMove(row + 1, column - 1, possibleMoves, myPosition, board, null);
-                if (board.getPiece(new ChessPosition(row + 1, column)) == null) {
-                    addMove(row + 2, column, possibleMoves, myPosition, board, null);
-                }
-            } else if (row == 7) {
-                addMove(row + 1, column, possibleMoves, myPosition, board, PieceType.QUEEN);
-                addMove(row + 1, column, possibleMoves, myPosition, board, PieceType.BISHOP);
-                addMove(row + 1, column, possibleMoves, myPosition, board, PieceType.KNIGHT);
-                addMove(row + 1, column, possibleMoves, myPosition, board, PieceType.ROOK);
-                addPawnCapturePromotionMove(row + 1, column + 1, possibleMoves, myPosition, board);
-                addPawnCapturePromotionMove(row + 1, column - 1, possibleMoves, myPosition, board);
-            } else {
-                addMove(row + 1, column, possibleMoves, myPosition, board, null);
-                addPawnMove(row + 1, column + 1, possibleMoves, myPosition, board, null);
-                addPawnMove(row + 1, column - 1, possibleMoves, myPosition, board, null);
-            }
-
-
-        }
-        if (this.color == ChessGame.TeamColor.BLACK) {
-            if (row == 7) {
-                addMove(row - 1, column, possibleMoves, myPosition, board, null);
-                addPawnMove(row - 1, column + 1, possibleMoves, myPosition, board, null);
-                addPawnMove(row - 1, column - 1, possibleMoves, myPosition, board, null);
-                if (board.getPiece(new ChessPosition(row - 1, column)) == null) {
-                    addMove(row - 2, column, possibleMoves, myPosition, board, null);
-                }
-            } else if (row == 2) {
-                addMove(row - 1, column, possibleMoves, myPosition, board, PieceType.QUEEN);
-                addMove(row - 1, column, possibleMoves, myPosition, board, PieceType.BISHOP);
-                addMove(row - 1, column, possibleMoves, myPosition, board, PieceType.KNIGHT);
-                addMove(row - 1, column, possibleMoves, myPosition, board, PieceType.ROOK);
-                addPawnCapturePromotionMove(row - 1, column + 1, possibleMoves, myPosition, board);
-                addPawnCapturePromotionMove(row - 1, column - 1, possibleMoves, myPosition, board);
-            } else {
-                addMove(row - 1, column, possibleMoves, myPosition, board, null);
-                addPawnMove(row - 1, column + 1, possibleMoves, myPosition, board, null);
-                addPawnMove(row - 1, column - 1, possibleMoves, myPosition, board, null);
-            }
-        }
-        return possibleMoves;
-    }
-
     /**
-     * A method to add a move to a piece's possible moves.
-     * Used for all pieces except diagonal pawn moves.
+     * The shared instance for a color and type. Pieces carry no state of their own, so every
+     * board can point at the same twelve.
      */
-    private void addMove(int row, int col, Collection<ChessMove> moves, ChessPosition position, ChessBoard board, ChessPiece.PieceType piece) {
-        ChessPosition newPosition = new ChessPosition(row, col);
-        if (inBoardRange(newPosition) && board.getPiece(newPosition) == null) {
-            moves.add(new ChessMove(position, newPosition, piece));
-        } else if (inBoardRange(newPosition) && board.getPiece(newPosition).color != this.color && this.type != PieceType.PAWN) {
-            moves.add(new ChessMove(position, newPosition, piece));
-        }
+    public static ChessPiece of(ChessGame.TeamColor color, PieceType type) {
+        return PIECES[color.ordinal() * 6 + type.ordinal()];
     }
 
     /**
-     * A method to add a diagonal pawn move to a pawn's possible moves.
+     * Index of this piece's color and type, from 0 to 11, used for bitboards and hash keys.
      */
-    private void addPawnMove(int row, int col, Collection<ChessMove> moves, ChessPosition position, ChessBoard board, ChessPiece.PieceType piece) {
-        ChessPosition newPosition = new ChessPosition(row, col);
-        if (inBoardRange(newPosition) && board.getPiece(newPosition) != null && board.getPiece(newPosition).color != this.color) {
-            moves.add(new ChessMove(position, newPosition, piece));
-        }
+    int index() {
+        return color.ordinal() * 6 + type.ordinal();
     }
 
-    /**
-     * A method to add promotion moves to a pawn's possible moves.
-     */
-    private void addPawnCapturePromotionMove(int row, int column, Collection<ChessMove> moves, ChessPosition myPosition, ChessBoard board) {
-        ChessPosition newPosition = new ChessPosition(row, column);
-        if ((board.getPiece(newPosition) != null && board.getPiece(newPosition).color != this.color)) {
-            addPawnMove(row, column, moves, myPosition, board, PieceType.QUEEN);
-            addPawnMove(row, column, moves, myPosition, board, PieceType.BISHOP);
-            addPawnMove(row, column, moves, myPosition, board, PieceType.ROOK);
-            addPawnMove(row, column, moves, myPosition, board, PieceType.KNIGHT);
-        }
+    static ChessPiece piece(int index) {
+        return PIECES[index];
     }
 
-    /**
-     * Checks to see if a range of moves is possible.
-     * Used for bishop and rook moves.
-     */
-    private void checkMove(int rowMove, int columnMove, ChessPosition myPosition, Collection<ChessMove> possibleMoves, ChessBoard board) {
-        int row = myPosition.getRow(), column = myPosition.getColumn();
-        boolean isPiece = false;
-        while (inBoardRange(row, column) && !isPiece) {
-            row += rowMove;
-            column += columnMove;
-            if (inBoardRange(row, column)) {
-                addMove(row, column, possibleMoves, myPosition, board, null);
-                if (board.getPiece(new ChessPosition(row, column)) != null) {
-                    isPiece = true;
-                }
-            }
-        }
-    }
 
     /**
-     * Two of the same method with different parameters for convenience.
-     * Says whether a move would be within the range of the board.
+     * Calculates all the positions a chess piece can move to.
+     * Does not take into account moves that are illegal due to leaving the king in danger.
+     * Castling and en passant need the game's history, so ChessGame adds those itself.
      */
-    private Boolean inBoardRange(int row, int column) {
-        return row <= 8 && row > 0 && column <= 8 && column > 0;
-    }
-
-    private Boolean inBoardRange(ChessPosition position) {
-        int row = position.getRow();
-        int column = position.getColumn();
-        return row <= 8 && row > 0 && column <= 8 && column > 0;
+    public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
+        int square = Bitboards.square(myPosition);
+        long targets = MoveGenerator.pieceTargets(board, square, color, type, board.occupied())
+                & ~board.occupancy(color);
+        MoveList possibleMoves = new MoveList(Long.bitCount(targets) * 4);
+        MoveGenerator.addMoves(square, targets, type == PieceType.PAWN, board.occupied(), possibleMoves);
+        return possibleMoves.toChessMoves();
     }
 
     @Override
@@ -237,7 +93,7 @@ public class ChessPiece {
 
     @Override
     public int hashCode() {
-        return Objects.hash(color, type);
+        return index();
     }
 
     @Override
@@ -1,17 +1,41 @@
 package chess;
 
-import java.util.Objects;
-
 
 public class ChessPosition {
-    private int row;
-    private int column;
+    /**
+     * The 64 squares of the board, indexed a1 = 0 through h8 = 63 like the bitboards.
+     */
+    private static final ChessPosition[] POSITIONS = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            POSITIONS[square] = new ChessPosition((square >>> 3) + 1, (square & 7) + 1);
+        }
+    }
+
+    private final int row;
+    private final int column;
 
     public ChessPosition(int row, int col) {
         this.row = row;
         this.column = col;
     }
 
+    /**
+     * The shared instance for a square on the board. Positions off the board are still allowed
+     * and get a fresh instance, since the old constructor never rejected them.
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return new ChessPosition(row, col);
+        }
+        return POSITIONS[(row - 1) * 8 + col - 1];
+    }
+
+    static ChessPosition of(int square) {
+        return POSITIONS[square];
+    }
+
 
     public int getRow() {
         return row;
@@ -36,7 +60,7 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, column);
+        return 31 * row + column;
     }
 
     @Override
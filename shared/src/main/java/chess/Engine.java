@@ -0,0 +1,323 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Alpha-beta searcher for finding the best move in a position.
+ * <p>
+ * The search is negamax with iterative deepening: depth 1, then 2, and so on until a limit runs out,
+ * with each pass seeded by the transposition table and best line of the one before. Leaves are settled
+ * by a quiescence search over captures and promotions so a position is never scored mid-exchange.
+ * <p>
+ * An engine keeps its transposition table between searches and is not safe to share between threads.
+ * The game passed in is played forward and back with doMove and undoMove, and is left as it was found.
+ */
+public final class Engine {
+    public static final int MATE = 32000;
+    private static final int INFINITY = 32500;
+    private static final int MAX_PLY = 128;
+    /* Time is checked once per this many nodes, since reading the clock costs more than a node. */
+    private static final int CLOCK_INTERVAL = 2048;
+
+    private final TranspositionTable table;
+    private final MoveList[] lists = new MoveList[MAX_PLY];
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY];
+    private final int[][] orderScores = new int[MAX_PLY][256];
+    private final int[][] pv = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+
+    private ChessGame game;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private boolean stopped;
+
+    /**
+     * How long a search may run. Any limit of zero or less is no limit; the search stops at whichever
+     * of the others is reached first, and always finishes at least depth 1.
+     */
+    public record Limits(int depth, long nodes, long millis) {
+        public static Limits depth(int depth) {
+            return new Limits(depth, 0, 0);
+        }
+
+        public static Limits nodes(long nodes) {
+            return new Limits(0, nodes, 0);
+        }
+
+        public static Limits millis(long millis) {
+            return new Limits(0, 0, millis);
+        }
+    }
+
+    /**
+     * The outcome of a search. The score is in centipawns for the team to move; scores within
+     * MAX_PLY of MATE mean a forced mate, and MATE minus the score is the number of plies to it.
+     * The best move is null if the team to move has no legal moves.
+     */
+    public record Result(ChessMove bestMove, int score, int depth, long nodes, long nanos,
+                         List<ChessMove> principalVariation) {
+        public long nodesPerSecond() {
+            return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+        }
+    }
+
+    public Engine() {
+        this(16);
+    }
+
+    /**
+     * @param tableMegabytes size of the transposition table, rounded down to a power of two entries
+     */
+    public Engine(int tableMegabytes) {
+        table = new TranspositionTable(tableMegabytes);
+        for (int i = 0; i < MAX_PLY; i++) {
+            lists[i] = new MoveList();
+            pickers[i] = new MovePicker();
+        }
+    }
+
+    /**
+     * Forgets every stored position, for starting a new game.
+     */
+    public void clear() {
+        table.clear();
+    }
+
+    public Result search(ChessGame game, Limits limits) {
+        long start = System.nanoTime();
+        this.game = game;
+        nodes = 0;
+        stopped = false;
+        nodeLimit = limits.nodes() > 0 ? limits.nodes() : Long.MAX_VALUE;
+        deadline = limits.millis() > 0 ? start + limits.millis() * 1_000_000 : Long.MAX_VALUE;
+        int maxDepth = limits.depth() > 0 ? Math.min(limits.depth(), MAX_PLY - 1) : MAX_PLY - 1;
+
+        int bestMove = 0, bestScore = 0, completedDepth = 0;
+        List<ChessMove> bestLine = List.of();
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int score = negamax(depth, -INFINITY, INFINITY, 0);
+            /* An interrupted pass is only trusted when there is nothing better to go on. */
+            if (stopped && completedDepth > 0) {
+                break;
+            }
+            if (pvLength[0] > 0) {
+                bestMove = pv[0][0];
+                bestScore = score;
+                bestLine = principalVariation();
+            }
+            completedDepth = depth;
+            if (stopped || Math.abs(score) >= MATE - depth) {
+                break;
+            }
+        }
+        if (bestMove == 0) {
+            MoveList moves = lists[0];
+            game.generateMoves(moves);
+            if (!moves.isEmpty()) {
+                bestMove = moves.get(0);
+                bestLine = List.of(Moves.toChessMove(bestMove));
+            } else {
+                bestScore = game.isInCheck(game.getTeamTurn()) ? -MATE : 0;
+            }
+        }
+        this.game = null;
+        return new Result(bestMove == 0 ? null : Moves.toChessMove(bestMove), bestScore, completedDepth, nodes,
+                System.nanoTime() - start, bestLine);
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        pvLength[ply] = 0;
+        if (ply > 0 && (game.getHalfmoveClock() >= 100 || game.repetitionCount() >= 2)) {
+            return 0;
+        }
+        if (depth <= 0) {
+            return quiesce(alpha, beta, ply);
+        }
+        if (countNode() || ply >= MAX_PLY - 1) {
+            return Evaluation.evaluate(game);
+        }
+
+        long key = game.positionKey();
+        long entry = table.probe(key);
+        int tableMove = 0;
+        if (entry != 0) {
+            tableMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        MoveList moves = lists[ply];
+        game.generateMoves(moves);
+        if (moves.isEmpty()) {
+            return game.isInCheck(game.getTeamTurn()) ? -MATE + ply : 0;
+        }
+        scoreMoves(moves, orderScores[ply], tableMove);
+
+        int originalAlpha = alpha, bestScore = -INFINITY, bestMove = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = nextMove(moves, orderScores[ply], i);
+            game.doMove(move);
+            int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.LOWER
+                : bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, toTable(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    /**
+     * Searches captures and promotions only, until the position is quiet. The team to move may
+     * also stand pat on the static score, since it is never forced to capture, and captures that lose
+     * material in the exchange are skipped. In check every move is searched instead, so a mate is not
+     * mistaken for a quiet position.
+     */
+    private int quiesce(int alpha, int beta, int ply) {
+        pvLength[ply] = 0;
+        if (countNode() || ply >= MAX_PLY - 1) {
+            return Evaluation.evaluate(game);
+        }
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        if (!inCheck) {
+            int standPat = Evaluation.evaluate(game);
+            if (standPat >= beta) {
+                return standPat;
+            }
+            alpha = Math.max(alpha, standPat);
+        }
+
+        MovePicker picker = pickers[ply].reset(game, inCheck);
+        boolean anyMoves = false;
+        for (int move = picker.next(); move != 0; move = picker.next()) {
+            anyMoves = true;
+            game.doMove(move);
+            int score = -quiesce(-beta, -alpha, ply + 1);
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > alpha) {
+                alpha = score;
+                updatePv(ply, move);
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        }
+        if (inCheck && !anyMoves) {
+            return -MATE + ply;
+        }
+        return alpha;
+    }
+
+    /**
+     * Counts a node and reports whether a limit has been reached.
+     */
+    private boolean countNode() {
+        nodes++;
+        if (nodes >= nodeLimit || (nodes % CLOCK_INTERVAL == 0 && System.nanoTime() >= deadline)) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    /**
+     * Ordering keys: the table's move first, then captures with the most valuable victim and least
+     * valuable attacker first, then promotions, then quiet moves.
+     */
+    private void scoreMoves(MoveList moves, int[] scores, int tableMove) {
+        ChessBoard board = game.getBoard();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int score = 0;
+            if (move == tableMove) {
+                score = 1_000_000;
+            } else if (Moves.isCapture(move)) {
+                ChessPiece victim = board.getPiece(Moves.to(move));
+                int victimValue = victim == null ? Evaluation.PIECE_VALUES[ChessPiece.PieceType.PAWN.ordinal()]
+                        : Evaluation.PIECE_VALUES[victim.getPieceType().ordinal()];
+                int attackerValue = Evaluation.PIECE_VALUES[board.getPiece(Moves.from(move)).getPieceType().ordinal()];
+                score = 100_000 + victimValue * 10 - attackerValue / 10;
+            }
+            if (Moves.promotion(move) != null) {
+                score += 50_000 + Evaluation.PIECE_VALUES[Moves.promotion(move).ordinal()];
+            }
+            scores[i] = score;
+        }
+    }
+
+    /**
+     * Swaps the best scored of the remaining moves into place. Cutoffs usually come early, so picking
+     * one at a time beats sorting the whole list.
+     */
+    private static int nextMove(MoveList moves, int[] scores, int from) {
+        int best = from;
+        for (int i = from + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        if (best != from) {
+            int move = moves.get(best);
+            moves.set(best, moves.get(from));
+            moves.set(from, move);
+            int score = scores[best];
+            scores[best] = scores[from];
+            scores[from] = score;
+        }
+        return moves.get(from);
+    }
+
+    private void updatePv(int ply, int move) {
+        pv[ply][0] = move;
+        System.arraycopy(pv[ply + 1], 0, pv[ply], 1, pvLength[ply + 1]);
+        pvLength[ply] = pvLength[ply + 1] + 1;
+    }
+
+    private List<ChessMove> principalVariation() {
+        List<ChessMove> line = new ArrayList<>(pvLength[0]);
+        for (int i = 0; i < pvLength[0]; i++) {
+            line.add(Moves.toChessMove(pv[0][i]));
+        }
+        return line;
+    }
+
+    /* Mate scores are stored relative to the stored position rather than the root, so they stay right wherever it recurs. */
+    private static int toTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        }
+        return score <= -MATE + MAX_PLY ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        }
+        return score <= -MATE + MAX_PLY ? score + ply : score;
+    }
+}
@@ -0,0 +1,144 @@
+package chess;
+
+/**
+ * Static evaluation: material plus a piece-square bonus, in centipawns.
+ * <p>
+ * The piece-square tables are the widely used "simplified evaluation function" ones. They are written
+ * the way a board is printed, row 8 first from white's side, and flipped for black when the lookup
+ * table is built. The king has a separate endgame table that pulls it to the centre; the score is
+ * tapered between the middlegame and endgame totals by how much non-pawn material is left.
+ * <p>
+ * {@link ChessBoard} keeps the totals up to date as pieces are added and removed, so evaluating a
+ * position is constant time. {@link #scan} works them out from scratch instead and is kept as the
+ * reference the running totals are checked and benchmarked against.
+ */
+public final class Evaluation {
+    static final int[] PIECE_VALUES = {0, 900, 330, 320, 500, 100};
+    /**
+     * Weight of each piece type in the game phase. The starting position adds up to MAX_PHASE.
+     */
+    static final int[] PHASES = {0, 4, 1, 1, 2, 0};
+    static final int MAX_PHASE = 24;
+
+    private static final int[][] TABLES = {
+            { // King
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -20, -30, -30, -40, -40, -30, -30, -20,
+                    -10, -20, -20, -20, -20, -20, -20, -10,
+                    20, 20, 0, 0, 0, 0, 20, 20,
+                    20, 30, 10, 0, 0, 10, 30, 20},
+            { // Queen
+                    -20, -10, -10, -5, -5, -10, -10, -20,
+                    -10, 0, 0, 0, 0, 0, 0, -10,
+                    -10, 0, 5, 5, 5, 5, 0, -10,
+                    -5, 0, 5, 5, 5, 5, 0, -5,
+                    0, 0, 5, 5, 5, 5, 0, -5,
+                    -10, 5, 5, 5, 5, 5, 0, -10,
+                    -10, 0, 5, 0, 0, 0, 0, -10,
+                    -20, -10, -10, -5, -5, -10, -10, -20},
+            { // Bishop
+                    -20, -10, -10, -10, -10, -10, -10, -20,
+                    -10, 0, 0, 0, 0, 0, 0, -10,
+                    -10, 0, 5, 10, 10, 5, 0, -10,
+                    -10, 5, 5, 10, 10, 5, 5, -10,
+                    -10, 0, 10, 10, 10, 10, 0, -10,
+                    -10, 10, 10, 10, 10, 10, 10, -10,
+                    -10, 5, 0, 0, 0, 0, 5, -10,
+                    -20, -10, -10, -10, -10, -10, -10, -20},
+            { // Knight
+                    -50, -40, -30, -30, -30, -30, -40, -50,
+                    -40, -20, 0, 0, 0, 0, -20, -40,
+                    -30, 0, 10, 15, 15, 10, 0, -30,
+                    -30, 5, 15, 20, 20, 15, 5, -30,
+                    -30, 0, 15, 20, 20, 15, 0, -30,
+                    -30, 5, 10, 15, 15, 10, 5, -30,
+                    -40, -20, 0, 5, 5, 0, -20, -40,
+                    -50, -40, -30, -30, -30, -30, -40, -50},
+            { // Rook
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    5, 10, 10, 10, 10, 10, 10, 5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    0, 0, 0, 5, 5, 0, 0, 0},
+            { // Pawn
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    50, 50, 50, 50, 50, 50, 50, 50,
+                    10, 10, 20, 30, 30, 20, 10, 10,
+                    5, 5, 10, 25, 25, 10, 5, 5,
+                    0, 0, 0, 20, 20, 0, 0, 0,
+                    5, -5, -10, 0, 0, -10, -5, 5,
+                    5, 10, 10, -20, -20, 10, 10, 5,
+                    0, 0, 0, 0, 0, 0, 0, 0},
+    };
+
+    private static final int[] KING_ENDGAME = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50};
+
+    /**
+     * Worth of each piece index on each square from white's side, in the middlegame and in the endgame:
+     * positive for white pieces, negative for black.
+     */
+    static final int[][] MIDDLEGAME = new int[12][64];
+    static final int[][] ENDGAME = new int[12][64];
+
+    static {
+        for (int type = 0; type < 6; type++) {
+            int[] endgame = type == ChessPiece.PieceType.KING.ordinal() ? KING_ENDGAME : TABLES[type];
+            for (int square = 0; square < 64; square++) {
+                MIDDLEGAME[type][square] = PIECE_VALUES[type] + TABLES[type][square ^ 56];
+                MIDDLEGAME[6 + type][square] = -(PIECE_VALUES[type] + TABLES[type][square]);
+                ENDGAME[type][square] = PIECE_VALUES[type] + endgame[square ^ 56];
+                ENDGAME[6 + type][square] = -(PIECE_VALUES[type] + endgame[square]);
+            }
+        }
+    }
+
+    private Evaluation() {
+    }
+
+    /**
+     * Score of the position for the team to move; positive means that team is ahead.
+     */
+    public static int evaluate(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        int score = taper(board.middlegame(), board.endgame(), board.phase());
+        return game.getTeamTurn() == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    /**
+     * The same score as evaluate, added up square by square over the whole board.
+     */
+    public static int scan(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        int middlegame = 0, endgame = 0, phase = 0;
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(square);
+            if (piece != null) {
+                middlegame += MIDDLEGAME[piece.index()][square];
+                endgame += ENDGAME[piece.index()][square];
+                phase += PHASES[piece.getPieceType().ordinal()];
+            }
+        }
+        int score = taper(middlegame, endgame, phase);
+        return game.getTeamTurn() == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    /* Promotions can push the phase past the starting total, which still counts as a full middlegame. */
+    private static int taper(int middlegame, int endgame, int phase) {
+        phase = Math.min(phase, MAX_PHASE);
+        return (middlegame * phase + endgame * (MAX_PHASE - phase)) / MAX_PHASE;
+    }
+}
@@ -0,0 +1,178 @@
+package chess;
+
+/**
+ * Generates strictly legal moves in one pass. The pieces giving check, the pinned pieces and the squares
+ * that answer a check are worked out once per call, so no move has to be played out to see whether it
+ * leaves its own king in check. En passant is the one exception, and is tested against the position it leaves.
+ */
+final class MoveGenerator {
+    static final int WHITE_KINGSIDE = 1;
+    static final int WHITE_QUEENSIDE = 2;
+    static final int BLACK_KINGSIDE = 4;
+    static final int BLACK_QUEENSIDE = 8;
+
+    /* Kinds of move to generate. */
+    static final int TACTICAL = 1;
+    static final int QUIET = 2;
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Adds every legal move for the team's pieces on the squares in the from mask.
+     *
+     * @param castlingRights the castling rights still held, as the flags above
+     * @param enPassant      the square a pawn can capture onto en passant, or -1 for none
+     */
+    static void legalMoves(ChessBoard board, ChessGame.TeamColor us, int castlingRights, int enPassant,
+                           long from, MoveList moves) {
+        legalMoves(board, us, castlingRights, enPassant, from, TACTICAL | QUIET, moves);
+    }
+
+    /**
+     * Adds the legal moves of the kinds asked for: TACTICAL for captures and promotions, QUIET for everything
+     * else, castling included. Generating one kind skips the other's work instead of filtering it out after.
+     */
+    static void legalMoves(ChessBoard board, ChessGame.TeamColor us, int castlingRights, int enPassant,
+                           long from, int kinds, MoveList moves) {
+        ChessGame.TeamColor them = ChessGame.opponent(us);
+        long own = board.occupancy(us);
+        long enemies = board.occupancy(them);
+        long occupied = own | enemies;
+        long kings = board.bitboard(us, ChessPiece.PieceType.KING);
+        int king = Long.numberOfTrailingZeros(kings);
+        boolean tactical = (kinds & TACTICAL) != 0, quiet = (kinds & QUIET) != 0;
+        long promotions = Bitboards.RANK_1 | Bitboards.RANK_8;
+        long pieceKinds = (tactical ? enemies : 0) | (quiet ? ~occupied : 0);
+        long pawnKinds = (tactical ? enemies | promotions : 0) | (quiet ? ~occupied & ~promotions : 0);
+
+        long checkers = 0, pinned = 0, targets = ~own;
+        if (kings != 0) {
+            checkers = Bitboards.attackers(board, king, them, occupied);
+            pinned = pinned(board, king, us, occupied);
+            if (checkers != 0) {
+                targets &= Bitboards.between(king, Long.numberOfTrailingZeros(checkers)) | checkers;
+            }
+            if ((kings & from) != 0) {
+                kingMoves(board, king, us, castlingRights, occupied, pieceKinds, quiet && checkers == 0, moves);
+            }
+        }
+        if ((checkers & (checkers - 1)) != 0) {
+            return;
+        }
+
+        for (long pieces = own & ~kings & from; pieces != 0; pieces &= pieces - 1) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            long bit = 1L << square;
+            ChessPiece.PieceType type = board.getPiece(square).getPieceType();
+            boolean pawn = type == ChessPiece.PieceType.PAWN;
+            long pieceTargets = pieceTargets(board, square, us, type, occupied) & targets
+                    & (pawn ? pawnKinds : pieceKinds);
+            if ((pinned & bit) != 0) {
+                pieceTargets &= Bitboards.line(king, square);
+            }
+            addMoves(square, pieceTargets, pawn, enemies, moves);
+
+            if (pawn && tactical && enPassant >= 0
+                    && (Bitboards.pawnAttacks(us, square) & (1L << enPassant)) != 0
+                    && enPassantIsLegal(board, king, us, square, enPassant, occupied)) {
+                moves.add(Moves.encode(square, enPassant, null, Moves.CAPTURE | Moves.EN_PASSANT));
+            }
+        }
+    }
+
+    /**
+     * Squares the piece on the square attacks or can push to, before own pieces, pins and checks are masked out.
+     * Castling and en passant are left to the callers that know the game state.
+     */
+    static long pieceTargets(ChessBoard board, int square, ChessGame.TeamColor us, ChessPiece.PieceType type,
+                             long occupied) {
+        return switch (type) {
+            case KING -> Bitboards.kingAttacks(square);
+            case QUEEN -> Bitboards.rookAttacks(square, occupied) | Bitboards.bishopAttacks(square, occupied);
+            case BISHOP -> Bitboards.bishopAttacks(square, occupied);
+            case KNIGHT -> Bitboards.knightAttacks(square);
+            case ROOK -> Bitboards.rookAttacks(square, occupied);
+            case PAWN -> Bitboards.pawnPushes(us, 1L << square, occupied)
+                    | (Bitboards.pawnAttacks(us, square) & board.occupancy(ChessGame.opponent(us)));
+        };
+    }
+
+    /**
+     * Own pieces that are the only thing standing between the king and an enemy rook, bishop or queen.
+     */
+    private static long pinned(ChessBoard board, int king, ChessGame.TeamColor us, long occupied) {
+        ChessGame.TeamColor them = ChessGame.opponent(us);
+        long queens = board.bitboard(them, ChessPiece.PieceType.QUEEN);
+        long snipers = (Bitboards.rookAttacks(king, 0) & (board.bitboard(them, ChessPiece.PieceType.ROOK) | queens))
+                | (Bitboards.bishopAttacks(king, 0) & (board.bitboard(them, ChessPiece.PieceType.BISHOP) | queens));
+        long pinned = 0;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = Bitboards.between(king, Long.numberOfTrailingZeros(snipers)) & occupied;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0) {
+                pinned |= blockers & board.occupancy(us);
+            }
+        }
+        return pinned;
+    }
+
+    private static void kingMoves(ChessBoard board, int king, ChessGame.TeamColor us, int castlingRights,
+                                  long occupied, long kinds, boolean canCastle, MoveList moves) {
+        ChessGame.TeamColor them = ChessGame.opponent(us);
+        /* The king is lifted off the board so it cannot hide behind itself from a slider. */
+        long withoutKing = occupied ^ (1L << king);
+        for (long targets = Bitboards.kingAttacks(king) & ~board.occupancy(us) & kinds; targets != 0;
+             targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            if (Bitboards.attackers(board, to, them, withoutKing) == 0) {
+                moves.add(Moves.encode(king, to, null, (board.occupancy(them) & (1L << to)) != 0 ? Moves.CAPTURE : 0));
+            }
+        }
+
+        int home = us == ChessGame.TeamColor.WHITE ? 4 : 60;
+        if (!canCastle || king != home) {
+            return;
+        }
+        int rights = us == ChessGame.TeamColor.WHITE ? castlingRights : castlingRights >>> 2;
+        long rooks = board.bitboard(us, ChessPiece.PieceType.ROOK);
+        if ((rights & WHITE_KINGSIDE) != 0 && (rooks & (1L << (home + 3))) != 0
+                && (occupied & (3L << (home + 1))) == 0
+                && !Bitboards.isAttacked(board, home + 1, them) && !Bitboards.isAttacked(board, home + 2, them)) {
+            moves.add(Moves.encode(home, home + 2, null, Moves.CASTLE));
+        }
+        if ((rights & WHITE_QUEENSIDE) != 0 && (rooks & (1L << (home - 4))) != 0
+                && (occupied & (7L << (home - 3))) == 0
+                && !Bitboards.isAttacked(board, home - 1, them) && !Bitboards.isAttacked(board, home - 2, them)) {
+            moves.add(Moves.encode(home, home - 2, null, Moves.CASTLE));
+        }
+    }
+
+    /**
+     * Plays the capture out on an occupancy mask: both pawns leave their squares and the capturing pawn
+     * lands behind the captured one. Catches the rare case of two pawns shielding the king on one row.
+     */
+    private static boolean enPassantIsLegal(ChessBoard board, int king, ChessGame.TeamColor us, int from,
+                                            int enPassant, long occupied) {
+        if (king == 64) {
+            return true;
+        }
+        int captured = us == ChessGame.TeamColor.WHITE ? enPassant - 8 : enPassant + 8;
+        long after = (occupied ^ (1L << from) ^ (1L << captured)) | (1L << enPassant);
+        return Bitboards.attackers(board, king, ChessGame.opponent(us), after) == 0;
+    }
+
+    static void addMoves(int from, long targets, boolean pawn, long enemies, MoveList moves) {
+        for (; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            int flags = (enemies & (1L << to)) != 0 ? Moves.CAPTURE : 0;
+            if (pawn && ((1L << to) & (Bitboards.RANK_1 | Bitboards.RANK_8)) != 0) {
+                moves.add(Moves.encode(from, to, ChessPiece.PieceType.QUEEN, flags));
+                moves.add(Moves.encode(from, to, ChessPiece.PieceType.BISHOP, flags));
+                moves.add(Moves.encode(from, to, ChessPiece.PieceType.KNIGHT, flags));
+                moves.add(Moves.encode(from, to, ChessPiece.PieceType.ROOK, flags));
+            } else {
+                moves.add(Moves.encode(from, to, null, flags));
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A reusable buffer of moves packed as ints (see {@link Moves}). Keep one per search depth and clear it
+ * before each use; once it has grown to the largest move count it sees, filling it never allocates.
+ */
+public final class MoveList {
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(256);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[capacity];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, Math.max(8, size * 2));
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Copies the moves out as ChessMoves, for the public collection-based API.
+     */
+    public List<ChessMove> toChessMoves() {
+        List<ChessMove> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(Moves.toChessMove(moves[i]));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,210 @@
+package chess;
+
+/**
+ * Hands out the legal moves of a position one at a time, likely best first, generating them in stages so
+ * a caller that stops early never pays for the moves it did not look at.
+ * <p>
+ * Captures and promotions come first, most valuable victim first and then least valuable attacker. Each
+ * capture is checked with a static exchange evaluation as it comes up, and one that loses material once
+ * every recapture on the square has been played out is held back. Quiet moves are only generated when
+ * those run out, and the held-back captures come last.
+ * <p>
+ * A picker can be reset onto position after position and allocates nothing once its lists have grown.
+ * Its game must not be moved while the picker is in use.
+ */
+public final class MovePicker {
+    private static final int GOOD_CAPTURES = 0;
+    private static final int QUIETS = 1;
+    private static final int BAD_CAPTURES = 2;
+    private static final int DONE = 3;
+
+    /* Cheapest first, the order a square's attackers are taken off in an exchange. */
+    private static final ChessPiece.PieceType[] ATTACKER_ORDER = {
+            ChessPiece.PieceType.PAWN, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KING};
+
+    private final MoveList moves = new MoveList();
+    private final MoveList badCaptures = new MoveList(32);
+    private final int[] gains = new int[32];
+    private int[] scores = new int[256];
+    private ChessGame game;
+    private boolean quiets;
+    private int stage = DONE;
+    private int index;
+
+    public MovePicker() {
+    }
+
+    public MovePicker(ChessGame game) {
+        reset(game);
+    }
+
+    /**
+     * Starts over on the game's current position.
+     */
+    public MovePicker reset(ChessGame game) {
+        return reset(game, true);
+    }
+
+    /**
+     * @param quiets false to stop after the captures and promotions that do not lose material, as a
+     *               quiescence search wants
+     */
+    MovePicker reset(ChessGame game, boolean quiets) {
+        this.game = game;
+        this.quiets = quiets;
+        game.generateMoves(-1L, MoveGenerator.TACTICAL, moves);
+        if (scores.length < moves.size()) {
+            scores = new int[moves.size()];
+        }
+        ChessBoard board = game.getBoard();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int score = Moves.isCapture(move) ? victimValue(board, move) * 10 - attackerValue(board, move) / 10 : 0;
+            if (Moves.promotion(move) != null) {
+                score += Evaluation.PIECE_VALUES[Moves.promotion(move).ordinal()];
+            }
+            scores[i] = score;
+        }
+        badCaptures.clear();
+        stage = GOOD_CAPTURES;
+        index = 0;
+        return this;
+    }
+
+    /**
+     * The next move, packed as in {@link Moves}, or 0 once there are none left.
+     */
+    public int next() {
+        while (true) {
+            switch (stage) {
+                case GOOD_CAPTURES -> {
+                    if (index == moves.size()) {
+                        if (quiets) {
+                            game.generateMoves(-1L, MoveGenerator.QUIET, moves);
+                            index = 0;
+                            stage = QUIETS;
+                        } else {
+                            stage = DONE;
+                        }
+                        continue;
+                    }
+                    int move = pickBest();
+                    ChessBoard board = game.getBoard();
+                    /* Taking something worth at least the taker cannot lose material, so only the rest need a look. */
+                    if (Moves.isCapture(move) && attackerValue(board, move) > victimValue(board, move)
+                            && see(board, move) < 0) {
+                        if (quiets) {
+                            badCaptures.add(move);
+                        }
+                        continue;
+                    }
+                    return move;
+                }
+                case QUIETS -> {
+                    if (index < moves.size()) {
+                        return moves.get(index++);
+                    }
+                    index = 0;
+                    stage = BAD_CAPTURES;
+                }
+                case BAD_CAPTURES -> {
+                    if (index < badCaptures.size()) {
+                        return badCaptures.get(index++);
+                    }
+                    stage = DONE;
+                }
+                default -> {
+                    return 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * The next move as a ChessMove, or null once there are none left.
+     */
+    public ChessMove nextMove() {
+        int move = next();
+        return move == 0 ? null : Moves.toChessMove(move);
+    }
+
+    /* Selection step: swaps the best scored remaining move into place and moves past it. */
+    private int pickBest() {
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves.get(best);
+        moves.set(best, moves.get(index));
+        scores[best] = scores[index];
+        index++;
+        return move;
+    }
+
+    /**
+     * Material the capture wins or loses once both teams have recaptured on the square for as long as it
+     * pays them, cheapest piece first each time. Pieces behind a slider join in as the ones in front are
+     * taken off. Pins and checks are not looked at.
+     */
+    int see(ChessBoard board, int move) {
+        int from = Moves.from(move), to = Moves.to(move);
+        long occupied = board.occupied() ^ (1L << from);
+        if ((move & Moves.EN_PASSANT) != 0) {
+            occupied ^= 1L << (to ^ 8);
+        }
+        ChessGame.TeamColor side = ChessGame.opponent(board.getPiece(from).getTeamColor());
+        gains[0] = victimValue(board, move);
+        int onSquare = attackerValue(board, move);
+        if (Moves.promotion(move) != null) {
+            onSquare = Evaluation.PIECE_VALUES[Moves.promotion(move).ordinal()];
+            gains[0] += onSquare - Evaluation.PIECE_VALUES[ChessPiece.PieceType.PAWN.ordinal()];
+        }
+        int depth = 0;
+        while (depth < gains.length - 1) {
+            long attackers = Bitboards.attackers(board, to, side, occupied);
+            if (attackers == 0) {
+                break;
+            }
+            ChessPiece.PieceType type = null;
+            long bit = 0;
+            for (ChessPiece.PieceType candidate : ATTACKER_ORDER) {
+                long pieces = attackers & board.bitboard(side, candidate);
+                if (pieces != 0) {
+                    type = candidate;
+                    bit = pieces & -pieces;
+                    break;
+                }
+            }
+            /* A king can only take last, when nothing is left to take it back. */
+            if (type == ChessPiece.PieceType.KING
+                    && Bitboards.attackers(board, to, ChessGame.opponent(side), occupied ^ bit) != 0) {
+                break;
+            }
+            depth++;
+            gains[depth] = onSquare - gains[depth - 1];
+            onSquare = Evaluation.PIECE_VALUES[type.ordinal()];
+            occupied ^= bit;
+            side = ChessGame.opponent(side);
+        }
+        /* Either team may stop recapturing, so each step keeps the better of taking and standing pat. */
+        while (depth > 0) {
+            gains[depth - 1] = -Math.max(-gains[depth - 1], gains[depth]);
+            depth--;
+        }
+        return gains[0];
+    }
+
+    /* En passant is the one capture onto an empty square, and its victim is always a pawn. */
+    private static int victimValue(ChessBoard board, int move) {
+        ChessPiece victim = board.getPiece(Moves.to(move));
+        ChessPiece.PieceType type = victim == null ? ChessPiece.PieceType.PAWN : victim.getPieceType();
+        return Evaluation.PIECE_VALUES[type.ordinal()];
+    }
+
+    private static int attackerValue(ChessBoard board, int move) {
+        return Evaluation.PIECE_VALUES[board.getPiece(Moves.from(move)).getPieceType().ordinal()];
+    }
+}
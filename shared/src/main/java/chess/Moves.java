@@ -0,0 +1,57 @@
+package chess;
+
+/**
+ * Moves packed into a single int, for code that generates and plays moves in bulk without allocating.
+ * <p>
+ * Squares are numbered 0 (a1) to 63 (h8), row by row. The from square takes bits 0-5 and the to square
+ * bits 6-11. Bits 12-14 hold the promotion piece's ordinal, which is never zero since a pawn cannot
+ * promote to a king, so zero means no promotion. The flags above that describe the move on the board it
+ * was generated for, and are left clear by {@link #encode(ChessMove)}.
+ */
+public final class Moves {
+    public static final int CAPTURE = 1 << 15;
+    public static final int CASTLE = 1 << 16;
+    public static final int EN_PASSANT = 1 << 17;
+
+    private static final ChessPiece.PieceType[] PROMOTIONS = ChessPiece.PieceType.values();
+
+    private Moves() {
+    }
+
+    public static int encode(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        return from | to << 6 | (promotion == null ? 0 : promotion.ordinal() << 12) | flags;
+    }
+
+    /**
+     * Packs a ChessMove with no flags set. ChessGame.doMove works out castling and en passant from the board,
+     * so the result can be played directly.
+     */
+    public static int encode(ChessMove move) {
+        return encode(Bitboards.square(move.getStartPosition()), Bitboards.square(move.getEndPosition()),
+                move.getPromotionPiece(), 0);
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    public static ChessPiece.PieceType promotion(int move) {
+        int promotion = (move >>> 12) & 7;
+        return promotion == 0 ? null : PROMOTIONS[promotion];
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    /**
+     * The shared ChessMove instance for a packed move, so converting back does not allocate either.
+     */
+    public static ChessMove toChessMove(int move) {
+        return ChessMove.of(from(move), to(move), promotion(move));
+    }
+}
@@ -0,0 +1,175 @@
+package chess;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only opening book in the Polyglot {@code .bin} layout, mapped into memory so even a very large book
+ * stays off the Java heap and only the pages a lookup touches are read from disk.
+ * <p>
+ * A Polyglot book is a run of 16-byte big-endian entries sorted by position key: the key, a move, a weight
+ * and four bytes of learning data that are ignored here. The move packs the to file and row in bits 0-5,
+ * the from file and row in bits 6-11 and the promotion (knight, bishop, rook, queen as 1-4) in bits 12-14.
+ * Castling is written as the king taking its own rook.
+ * <p>
+ * Positions are looked up by {@link #polyglotKey(ChessGame)}, the standard Polyglot key, so books made by
+ * other tools can be read and books written by {@link OpeningBookBuilder} work with them.
+ * <p>
+ * Lookups only read the mapped buffers at absolute offsets, so one book can be shared between threads,
+ * and nothing is allocated per lookup.
+ */
+public final class OpeningBook {
+    static final int ENTRY_BYTES = 16;
+    /* Each mapping covers at most 2^26 entries (1 GB), since one buffer cannot pass 2 GB. */
+    private static final int CHUNK_SHIFT = 26;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    private final MappedByteBuffer[] chunks;
+    private final long size;
+
+    private OpeningBook(MappedByteBuffer[] chunks, long size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size() / ENTRY_BYTES;
+            MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((size + CHUNK_MASK) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < chunks.length; i++) {
+                long first = (long) i << CHUNK_SHIFT;
+                long entries = Math.min(size - first, 1L << CHUNK_SHIFT);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, first * ENTRY_BYTES, entries * ENTRY_BYTES);
+            }
+            return new OpeningBook(chunks, size);
+        }
+    }
+
+    /**
+     * Number of entries in the book.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * The Polyglot key of the position. It is not {@link ChessGame#positionKey()}, which uses the engine's
+     * own random numbers.
+     */
+    public static long polyglotKey(ChessGame game) {
+        return Polyglot.key(game);
+    }
+
+    public boolean contains(ChessGame game) {
+        long key = polyglotKey(game);
+        long first = first(key);
+        return first < size && key(first) == key;
+    }
+
+    /**
+     * Fills the list with the book moves for the position, packed as in {@link Moves}, and the weights
+     * array with their weights in the same order.
+     *
+     * @return the number of moves found, which may be more than the weights array has room for
+     */
+    public int lookup(ChessGame game, MoveList moves, int[] weights) {
+        moves.clear();
+        long key = polyglotKey(game);
+        for (long entry = first(key); entry < size && key(entry) == key; entry++) {
+            if (moves.size() < weights.length) {
+                weights[moves.size()] = weight(entry);
+            }
+            moves.add(toMove(game.getBoard(), bookMove(entry)));
+        }
+        return moves.size();
+    }
+
+    /**
+     * The most heavily weighted book move for the position, or null if the position is not in the book.
+     */
+    public ChessMove bestMove(ChessGame game) {
+        long key = polyglotKey(game);
+        long best = -1;
+        for (long entry = first(key); entry < size && key(entry) == key; entry++) {
+            if (best < 0 || weight(entry) > weight(best)) {
+                best = entry;
+            }
+        }
+        return best < 0 ? null : Moves.toChessMove(toMove(game.getBoard(), bookMove(best)));
+    }
+
+    /* Index of the first entry whose key is not below the given one, comparing keys as unsigned like Polyglot does. */
+    private long first(long key) {
+        long low = 0, high = size;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(key(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long key(long entry) {
+        return chunks[(int) (entry >>> CHUNK_SHIFT)].getLong((int) (entry & CHUNK_MASK) * ENTRY_BYTES);
+    }
+
+    private int bookMove(long entry) {
+        return chunks[(int) (entry >>> CHUNK_SHIFT)].getShort((int) (entry & CHUNK_MASK) * ENTRY_BYTES + 8) & 0xFFFF;
+    }
+
+    private int weight(long entry) {
+        return chunks[(int) (entry >>> CHUNK_SHIFT)].getShort((int) (entry & CHUNK_MASK) * ENTRY_BYTES + 10) & 0xFFFF;
+    }
+
+    /**
+     * Converts a Polyglot move to a packed move, turning king-takes-rook back into a two-square king move.
+     */
+    static int toMove(ChessBoard board, int bookMove) {
+        int to = bookMove & 63;
+        int from = (bookMove >>> 6) & 63;
+        int promotion = (bookMove >>> 12) & 7;
+        ChessPiece moved = board.getPiece(from);
+        ChessPiece target = board.getPiece(to);
+        if (moved != null && moved.getPieceType() == ChessPiece.PieceType.KING && target != null
+                && target.getTeamColor() == moved.getTeamColor()) {
+            return Moves.encode(from, to > from ? from + 2 : from - 2, null, Moves.CASTLE);
+        }
+        ChessPiece.PieceType type = switch (promotion) {
+            case 1 -> ChessPiece.PieceType.KNIGHT;
+            case 2 -> ChessPiece.PieceType.BISHOP;
+            case 3 -> ChessPiece.PieceType.ROOK;
+            case 4 -> ChessPiece.PieceType.QUEEN;
+            default -> null;
+        };
+        int flags = target != null ? Moves.CAPTURE : 0;
+        if (moved != null && moved.getPieceType() == ChessPiece.PieceType.PAWN && target == null && (to - from) % 8 != 0) {
+            flags = Moves.CAPTURE | Moves.EN_PASSANT;
+        }
+        return Moves.encode(from, to, type, flags);
+    }
+
+    /**
+     * The Polyglot form of a move about to be played on the board.
+     */
+    static int toBookMove(ChessBoard board, int move) {
+        int from = Moves.from(move), to = Moves.to(move);
+        ChessPiece moved = board.getPiece(from);
+        if (moved != null && moved.getPieceType() == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            to = to > from ? from + 3 : from - 4;
+        }
+        ChessPiece.PieceType promotion = Moves.promotion(move);
+        int promotionCode = promotion == null ? 0 : switch (promotion) {
+            case KNIGHT -> 1;
+            case BISHOP -> 2;
+            case ROOK -> 3;
+            default -> 4;
+        };
+        return to | from << 6 | promotionCode << 12;
+    }
+}
@@ -0,0 +1,127 @@
+package chess;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Collects position and move pairs and writes them as a sorted book for {@link OpeningBook}.
+ * Each time a move is added its weight is added to that move's total for the position, so feeding
+ * in many games weights each reply by how often it was played.
+ */
+public final class OpeningBookBuilder {
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    private long[] keys = new long[1024];
+    private int[] moves = new int[1024];
+    private int[] weights = new int[1024];
+    private int size;
+
+    /**
+     * Plays the moves from the starting position, adding each one to the book with weight one.
+     *
+     * @throws InvalidMoveException if a move is not legal where it is played
+     */
+    public OpeningBookBuilder addLine(Iterable<ChessMove> line) throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (ChessMove move : line) {
+            add(game, move, 1);
+            game.makeMove(move);
+        }
+        return this;
+    }
+
+    /**
+     * Adds one move from the game's current position. The game is not changed.
+     */
+    public OpeningBookBuilder add(ChessGame game, ChessMove move, int weight) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            moves = Arrays.copyOf(moves, size * 2);
+            weights = Arrays.copyOf(weights, size * 2);
+        }
+        keys[size] = OpeningBook.polyglotKey(game);
+        moves[size] = OpeningBook.toBookMove(game.getBoard(), Moves.encode(move));
+        weights[size] = weight;
+        size++;
+        return this;
+    }
+
+    /**
+     * Sorts the entries by key, merges repeats of the same move and writes the book. Weights over the
+     * 16 bits the format allows are capped.
+     */
+    public void write(Path file) throws IOException {
+        sort(0, size - 1);
+        int[] merged = Arrays.copyOf(weights, size);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            int i = 0;
+            while (i < size) {
+                int end = i;
+                while (end < size && keys[end] == keys[i]) {
+                    end++;
+                }
+                /* Entries for one position sit together and are few, so a quadratic merge is fine. */
+                for (int j = i; j < end; j++) {
+                    if (merged[j] < 0) {
+                        continue;
+                    }
+                    long weight = merged[j];
+                    for (int k = j + 1; k < end; k++) {
+                        if (moves[k] == moves[j] && merged[k] >= 0) {
+                            weight += merged[k];
+                            merged[k] = -1;
+                        }
+                    }
+                    out.writeLong(keys[j]);
+                    out.writeShort(moves[j]);
+                    out.writeShort((int) Math.min(weight, MAX_WEIGHT));
+                    out.writeInt(0);
+                }
+                i = end;
+            }
+        }
+    }
+
+    /* Quicksort of the three parallel arrays by unsigned key, which is the order Polyglot books are in. */
+    private void sort(int low, int high) {
+        while (low < high) {
+            long pivot = keys[(low + high) >>> 1];
+            int i = low, j = high;
+            while (i <= j) {
+                while (Long.compareUnsigned(keys[i], pivot) < 0) {
+                    i++;
+                }
+                while (Long.compareUnsigned(keys[j], pivot) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            /* Recurse into the smaller side and loop on the larger, so the stack stays shallow. */
+            if (j - low < high - i) {
+                sort(low, j);
+                low = i;
+            } else {
+                sort(i, high);
+                high = j;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        int move = moves[i];
+        moves[i] = moves[j];
+        moves[j] = move;
+        int weight = weights[i];
+        weights[i] = weights[j];
+        weights[j] = weight;
+    }
+}
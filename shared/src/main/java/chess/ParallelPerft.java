@@ -0,0 +1,119 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft split across cores. Each root move becomes a fork/join task that plays it on its own copy of
+ * the game and counts the tree below. Gives the same totals as {@link Perft}, which makes it a check on
+ * the generator under concurrency as well as a way to load every core with move generation.
+ * <p>
+ * Workers can optionally share a {@link PerftTable} so a subtree reached by two different move orders
+ * is only counted once.
+ */
+public final class ParallelPerft {
+    private final ForkJoinPool pool;
+    private final PerftTable table;
+
+    /**
+     * @param hashMegabytes size of the shared subtree table, or zero to count every node
+     */
+    public ParallelPerft(ForkJoinPool pool, int hashMegabytes) {
+        this.pool = pool;
+        this.table = hashMegabytes > 0 ? new PerftTable(hashMegabytes) : null;
+    }
+
+    public ParallelPerft() {
+        this(ForkJoinPool.commonPool(), 0);
+    }
+
+    public long perft(ChessGame game, int depth) {
+        if (depth <= 1) {
+            return Perft.perft(game, depth);
+        }
+        long nodes = 0;
+        for (long count : divide(game, depth).values()) {
+            nodes += count;
+        }
+        return nodes;
+    }
+
+    /**
+     * The count below each root move, worked out in parallel and returned in generation order.
+     */
+    public Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        MoveList moves = new MoveList();
+        game.generateMoves(moves);
+        List<Subtree> tasks = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            tasks.add(new Subtree(game.copy(), moves.get(i), depth - 1));
+        }
+        for (Subtree task : tasks) {
+            pool.execute(task);
+        }
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        for (Subtree task : tasks) {
+            counts.put(Moves.toChessMove(task.move), task.join());
+        }
+        return counts;
+    }
+
+    private final class Subtree extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        /* Tasks only ever run in this process, so the game is never serialized with them. */
+        private final transient ChessGame game;
+        private final int move;
+        private final int depth;
+
+        Subtree(ChessGame game, int move, int depth) {
+            this.game = game;
+            this.move = move;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            game.doMove(move);
+            MoveList[] lists = new MoveList[Math.max(depth, 1)];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = new MoveList();
+            }
+            return count(depth, lists);
+        }
+
+        private long count(int depth, MoveList[] lists) {
+            if (depth == 0) {
+                return 1;
+            }
+            MoveList moves = lists[depth - 1];
+            if (depth == 1) {
+                game.generateMoves(moves);
+                return moves.size();
+            }
+            long key = 0;
+            if (table != null) {
+                key = game.positionKey();
+                long stored = table.probe(key, depth);
+                if (stored >= 0) {
+                    return stored;
+                }
+            }
+            game.generateMoves(moves);
+            long nodes = 0;
+            for (int i = 0; i < moves.size(); i++) {
+                game.doMove(moves.get(i));
+                nodes += count(depth - 1, lists);
+                game.undoMove();
+            }
+            if (table != null) {
+                table.store(key, depth, nodes);
+            }
+            return nodes;
+        }
+    }
+}
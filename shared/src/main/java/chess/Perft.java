@@ -0,0 +1,59 @@
+package chess;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth. The totals for well known positions
+ * are published, so matching them is the standard check that move generation is correct.
+ */
+public final class Perft {
+
+    private Perft() {
+    }
+
+    /**
+     * Number of move sequences of exactly the given length from the current position.
+     */
+    public static long perft(ChessGame game, int depth) {
+        MoveList[] lists = new MoveList[Math.max(depth, 1)];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = new MoveList();
+        }
+        return perft(game, depth, lists);
+    }
+
+    /**
+     * One move list per remaining depth, so the whole walk generates moves without allocating.
+     */
+    private static long perft(ChessGame game, int depth, MoveList[] lists) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList moves = lists[depth - 1];
+        game.generateMoves(moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.doMove(moves.get(i));
+            nodes += perft(game, depth - 1, lists);
+            game.undoMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * The perft count below each legal move, for tracking a wrong total down to the move that causes it.
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        for (ChessMove move : game.validMoves(game.getTeamTurn())) {
+            game.doMove(move);
+            counts.put(move, perft(game, depth - 1));
+            game.undoMove();
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,43 @@
+package chess;
+
+/**
+ * Lock-free table of subtree counts shared by every perft worker.
+ * <p>
+ * Each slot is two longs: the data, and the position key XORed with the data. Threads read and write the
+ * slots without any locking, so a reader can see one long from one write and the other from another.
+ * Such a torn entry no longer XORs back to its key and simply reads as a miss; a whole entry is
+ * always one a worker really stored. The data holds the node count in bits 0-55 and the depth above it.
+ */
+final class PerftTable {
+    private static final long COUNT_MASK = (1L << 56) - 1;
+
+    private final long[] slots;
+    private final int mask;
+
+    PerftTable(int megabytes) {
+        long entries = Long.highestOneBit(Math.max(1L, (long) megabytes << 20) / 16);
+        int size = (int) Math.min(Math.max(entries, 1024), 1 << 26);
+        slots = new long[size * 2];
+        mask = size - 1;
+    }
+
+    /**
+     * The stored count for the position at this depth, or -1 if there is none.
+     */
+    long probe(long key, int depth) {
+        int index = ((int) key & mask) << 1;
+        long data = slots[index + 1];
+        long check = slots[index];
+        if ((check ^ data) != key || (data >>> 56) != depth) {
+            return -1;
+        }
+        return data & COUNT_MASK;
+    }
+
+    void store(long key, int depth, long nodes) {
+        int index = ((int) key & mask) << 1;
+        long data = (long) depth << 56 | (nodes & COUNT_MASK);
+        slots[index] = key ^ data;
+        slots[index + 1] = data;
+    }
+}
@@ -0,0 +1,314 @@
+package chess;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads games one after another from a PGN file, playing each move onto a {@link ChessGame} as it goes.
+ * <p>
+ * Input is read through one fixed buffer, and a game's moves are handed out one at a time rather than
+ * collected, so memory use does not grow with the size of the file or the length of a game. Comments,
+ * variations and numeric annotations are skipped. A game that starts from a FEN tag is set up from it.
+ * <pre>
+ *     while (reader.nextGame()) {
+ *         for (int move = reader.nextMove(); move != 0; move = reader.nextMove()) {
+ *             ... reader.game() is the position after the move
+ *         }
+ *     }
+ * </pre>
+ */
+public final class PgnReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_TOKEN = 256;
+    /* Longer tag values are cut short, so one bad tag cannot take unbounded memory. */
+    private static final int MAX_TAG_VALUE = 1 << 16;
+
+    private final InputStream in;
+    private final ReadableByteChannel channel;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final ByteBuffer channelBuffer;
+    private int position;
+    private int limit;
+
+    private final StringBuilder token = new StringBuilder(MAX_TOKEN);
+    private byte[] tagValue = new byte[MAX_TOKEN];
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    private final MoveList moves = new MoveList();
+    private ChessGame game;
+    private String result;
+    private boolean inMoves;
+
+    public PgnReader(InputStream in) {
+        this.in = in;
+        this.channel = null;
+        this.channelBuffer = null;
+    }
+
+    public PgnReader(ReadableByteChannel channel) {
+        this.in = null;
+        this.channel = channel;
+        this.channelBuffer = ByteBuffer.wrap(buffer);
+    }
+
+    /**
+     * Moves on to the next game, skipping whatever is left of the current one, and reads its tags.
+     *
+     * @return false once there are no more games
+     * @throws InvalidMoveException if the game's FEN tag is not a valid position
+     */
+    public boolean nextGame() throws IOException, InvalidMoveException {
+        while (inMoves) {
+            readMoveToken();
+        }
+        tags.clear();
+        result = null;
+        int c = skipSpace();
+        while (c == '[') {
+            readTag();
+            c = skipSpace();
+        }
+        if (c < 0 && tags.isEmpty()) {
+            return false;
+        }
+        if (c >= 0) {
+            position--;
+        }
+        String fen = tags.get("FEN");
+        try {
+            game = fen == null ? new ChessGame() : ChessGame.fromFen(fen);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidMoveException(e.getMessage());
+        }
+        inMoves = true;
+        return true;
+    }
+
+    /**
+     * Reads the next move of the current game and plays it.
+     *
+     * @return the move, packed as in {@link Moves}, or 0 at the end of the game
+     * @throws InvalidMoveException if a move is not legal in the game
+     */
+    public int nextMove() throws IOException, InvalidMoveException {
+        if (!inMoves || !readMoveToken()) {
+            return 0;
+        }
+        int move = San.parse(game, token, moves);
+        game.doMove(move);
+        return move;
+    }
+
+    /**
+     * The game being read, in the position after the last move returned.
+     */
+    public ChessGame game() {
+        return game;
+    }
+
+    public String tag(String name) {
+        return tags.get(name);
+    }
+
+    public Map<String, String> tags() {
+        return Collections.unmodifiableMap(tags);
+    }
+
+    /**
+     * The result written after the game's moves: 1-0, 0-1, 1/2-1/2 or *. Null until the moves have been read,
+     * and also when a game ends without one.
+     */
+    public String result() {
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (in != null) {
+            in.close();
+        } else {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads up to the next move in the movetext into token, skipping move numbers, comments, variations
+     * and annotations. Returns false, and leaves the moves, at a result, the next game's tags or the end of the input.
+     */
+    private boolean readMoveToken() throws IOException {
+        while (true) {
+            int c = skipSpace();
+            switch (c) {
+                case -1 -> {
+                    inMoves = false;
+                    return false;
+                }
+                case '[' -> {
+                    position--;
+                    inMoves = false;
+                    return false;
+                }
+                case '{' -> skipPast('}');
+                case ';', '%' -> skipPast('\n');
+                case '(' -> skipVariation();
+                case '$' -> readWord(read());
+                case '*' -> {
+                    result = "*";
+                    inMoves = false;
+                    return false;
+                }
+                default -> {
+                    readWord(c);
+                    if (isResult()) {
+                        result = token.toString();
+                        inMoves = false;
+                        return false;
+                    }
+                    /*
+                     * A move number, on its own as in 12, 12. or a separated ..., or run together with the move
+                     * after it as in 12.e4 or 12...e5.
+                     */
+                    int digits = 0;
+                    while (digits < token.length() && Character.isDigit(token.charAt(digits))) {
+                        digits++;
+                    }
+                    int dots = digits;
+                    while (dots < token.length() && token.charAt(dots) == '.') {
+                        dots++;
+                    }
+                    if (dots == token.length()) {
+                        continue;
+                    }
+                    if (dots > digits) {
+                        token.delete(0, dots);
+                    }
+                    /* The old e.p. mark after an en passant capture, written on or apart from the move. */
+                    int length = token.length();
+                    if (length >= 4 && token.lastIndexOf("e.p.") == length - 4) {
+                        token.setLength(length - 4);
+                        if (length == 4) {
+                            continue;
+                        }
+                    }
+                    return true;
+                }
+            }
+        }
+    }
+
+    private boolean isResult() {
+        int length = token.length();
+        if (length == 3 && token.charAt(1) == '-') {
+            return (token.charAt(0) == '1' && token.charAt(2) == '0')
+                    || (token.charAt(0) == '0' && token.charAt(2) == '1');
+        }
+        return length == 7 && token.charAt(0) == '1' && token.charAt(1) == '/' && token.charAt(3) == '-';
+    }
+
+    /**
+     * Reads a word starting with the character given into token, stopping before a space or a bracket.
+     */
+    private void readWord(int c) throws IOException {
+        token.setLength(0);
+        while (c > ' ' && c != '{' && c != '}' && c != '(' && c != ')' && c != '[' && c != ']' && c != ';') {
+            if (token.length() < MAX_TOKEN) {
+                token.append((char) c);
+            }
+            c = read();
+        }
+        if (c >= 0) {
+            position--;
+        }
+    }
+
+    private void readTag() throws IOException {
+        token.setLength(0);
+        int c = skipSpace();
+        while (c > ' ' && c != '"' && c != ']') {
+            if (token.length() < MAX_TOKEN) {
+                token.append((char) c);
+            }
+            c = read();
+        }
+        while (c >= 0 && c <= ' ') {
+            c = read();
+        }
+        int length = 0;
+        if (c == '"') {
+            for (c = read(); c >= 0 && c != '"'; c = read()) {
+                if (c == '\\') {
+                    c = read();
+                }
+                if (length == tagValue.length) {
+                    if (length == MAX_TAG_VALUE) {
+                        continue;
+                    }
+                    tagValue = Arrays.copyOf(tagValue, length * 2);
+                }
+                tagValue[length++] = (byte) c;
+            }
+        }
+        if (c != ']') {
+            skipPast(']');
+        }
+        tags.put(token.toString(), new String(tagValue, 0, length, StandardCharsets.UTF_8));
+    }
+
+    private void skipVariation() throws IOException {
+        int depth = 1;
+        while (depth > 0) {
+            int c = read();
+            switch (c) {
+                case -1 -> depth = 0;
+                case '(' -> depth++;
+                case ')' -> depth--;
+                case '{' -> skipPast('}');
+                default -> {
+                }
+            }
+        }
+    }
+
+    private void skipPast(int end) throws IOException {
+        for (int c = read(); c >= 0 && c != end; c = read()) {
+        }
+    }
+
+    private int skipSpace() throws IOException {
+        int c = read();
+        while (c >= 0 && c <= ' ') {
+            c = read();
+        }
+        return c;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        int read;
+        if (in != null) {
+            read = in.read(buffer, 0, buffer.length);
+        } else {
+            channelBuffer.clear();
+            read = channel.read(channelBuffer);
+            while (read == 0) {
+                read = channel.read(channelBuffer);
+            }
+        }
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+}
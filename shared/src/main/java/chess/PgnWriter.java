@@ -0,0 +1,147 @@
+package chess;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Writes games in PGN, the format {@link PgnReader} reads. Moves are given one at a time and written in
+ * SAN worked out from the legal moves of the position, with movetext lines kept under 80 characters as
+ * the export format asks.
+ * <pre>
+ *     writer.startGame(tags);
+ *     for (ChessMove move : moves) {
+ *         writer.move(move);
+ *     }
+ *     writer.endGame("1-0");
+ * </pre>
+ */
+public final class PgnWriter implements Closeable, Flushable {
+    private static final int LINE_LENGTH = 79;
+    private static final String START_FEN = new ChessGame().toFen();
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(LINE_LENGTH + 16);
+    private final StringBuilder san = new StringBuilder(16);
+    private final MoveList moves = new MoveList();
+    private ChessGame game;
+    private boolean firstMove;
+
+    public PgnWriter(OutputStream out) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    public PgnWriter(WritableByteChannel channel) {
+        this.out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    /**
+     * Starts a game from the usual starting position, writing the tags in the map's order.
+     */
+    public void startGame(Map<String, String> tags) throws IOException {
+        startGame(tags, new ChessGame());
+    }
+
+    /**
+     * Starts a game from the given position, which is copied and not changed. SetUp and FEN tags are added
+     * when it is not the usual starting position and the tags do not already have them.
+     */
+    public void startGame(Map<String, String> tags, ChessGame start) throws IOException {
+        game = start.copy();
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            writeTag(tag.getKey(), tag.getValue());
+        }
+        String fen = start.toFen();
+        if (!fen.equals(START_FEN) && !tags.containsKey("FEN")) {
+            writeTag("SetUp", "1");
+            writeTag("FEN", fen);
+        }
+        out.write('\n');
+        line.setLength(0);
+        firstMove = true;
+    }
+
+    /**
+     * Writes the move and plays it on the writer's copy of the game.
+     *
+     * @throws InvalidMoveException if the move is not legal in the game
+     */
+    public void move(ChessMove move) throws IOException, InvalidMoveException {
+        move(Moves.encode(move));
+    }
+
+    public void move(int move) throws IOException, InvalidMoveException {
+        san.setLength(0);
+        San.append(game, move, moves, san);
+        if (game.getTeamTurn() == ChessGame.TeamColor.WHITE) {
+            word(san.insert(0, ". ").insert(0, game.getFullmoveNumber()));
+        } else if (firstMove) {
+            word(san.insert(0, "... ").insert(0, game.getFullmoveNumber()));
+        } else {
+            word(san);
+        }
+        firstMove = false;
+        game.doMove(move);
+    }
+
+    /**
+     * Writes the result, one of 1-0, 0-1, 1/2-1/2 or *, and the blank line that ends the game.
+     */
+    public void endGame(String result) throws IOException {
+        word(result);
+        out.append(line).write("\n\n");
+        line.setLength(0);
+        game = null;
+    }
+
+    /**
+     * The position after the moves written so far.
+     */
+    public ChessGame game() {
+        return game;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /* Adds a word to the movetext line, starting a new line first if it would not fit. */
+    private void word(CharSequence word) throws IOException {
+        if (!line.isEmpty() && line.length() + 1 + word.length() > LINE_LENGTH) {
+            out.append(line).write('\n');
+            line.setLength(0);
+        }
+        if (!line.isEmpty()) {
+            line.append(' ');
+        }
+        line.append(word);
+    }
+
+    private void writeTag(String name, String value) throws IOException {
+        out.write('[');
+        out.write(name);
+        out.write(" \"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+            }
+            out.write(c);
+        }
+        out.write("\"]\n");
+    }
+}
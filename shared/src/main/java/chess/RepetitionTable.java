@@ -0,0 +1,80 @@
+package chess;
+
+/**
+ * Counts how many times each position key has come up, in an open-addressed table with linear probing.
+ * Counts go down again as moves are taken back. Entries that drop to zero keep their slot until the
+ * table grows, so probe chains never have to be repaired.
+ */
+final class RepetitionTable {
+    private long[] keys;
+    private int[] counts;
+    private boolean[] used;
+    private int size;
+
+    RepetitionTable() {
+        this(64);
+    }
+
+    private RepetitionTable(int capacity) {
+        keys = new long[capacity];
+        counts = new int[capacity];
+        used = new boolean[capacity];
+    }
+
+    /**
+     * Records one more occurrence of the key and returns how many there are now.
+     */
+    int increment(long key) {
+        if (size * 2 >= keys.length) {
+            grow();
+        }
+        int slot = slot(key);
+        if (!used[slot]) {
+            used[slot] = true;
+            keys[slot] = key;
+            size++;
+        }
+        return ++counts[slot];
+    }
+
+    void decrement(long key) {
+        int slot = slot(key);
+        if (used[slot] && counts[slot] > 0) {
+            counts[slot]--;
+        }
+    }
+
+    int count(long key) {
+        int slot = slot(key);
+        return used[slot] ? counts[slot] : 0;
+    }
+
+    /* The key's slot, or the empty slot where it would go. */
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        boolean[] oldUsed = used;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        used = new boolean[oldKeys.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i] && oldCounts[i] > 0) {
+                int slot = slot(oldKeys[i]);
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+                size++;
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package chess;
+
+/**
+ * Standard Algebraic Notation, the way PGN writes moves: the piece letter (none for a pawn), as much of
+ * the from square as it takes to tell two like pieces apart, x for a capture, the to square, =Q style
+ * promotions and + or # when the move gives check or mate. Castling is O-O or O-O-O.
+ * <p>
+ * Both directions work from the legal moves of the position, generated into the list passed in, so a
+ * caller converting many moves can reuse one list and allocate nothing per move.
+ */
+public final class San {
+    /* Piece letters in PieceType order. */
+    private static final String PIECE_LETTERS = "KQBNRP";
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private San() {
+    }
+
+    /**
+     * The legal move the text stands for in the game's current position, packed as in {@link Moves}.
+     * Check marks and annotations such as ! and ? on the end are ignored, and so is a - between squares.
+     *
+     * @throws InvalidMoveException if the text is not a move, or is not legal or not unique in the position
+     */
+    public static int parse(ChessGame game, CharSequence san, MoveList moves) throws InvalidMoveException {
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        ChessBoard board = game.getBoard();
+        ChessGame.TeamColor us = game.getTeamTurn();
+        if (end >= 3 && (san.charAt(0) == 'O' || san.charAt(0) == '0')) {
+            boolean kingside = end == 3;
+            if (!kingside && end != 5) {
+                throw notAMove(san);
+            }
+            game.generateMoves(board.bitboard(us, ChessPiece.PieceType.KING), MoveGenerator.QUIET, moves);
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                if ((move & Moves.CASTLE) != 0 && (Moves.to(move) > Moves.from(move)) == kingside) {
+                    return move;
+                }
+            }
+            throw notLegal(san);
+        }
+
+        int start = 0;
+        ChessPiece.PieceType type = ChessPiece.PieceType.PAWN;
+        int letter = end > 0 ? PIECE_LETTERS.indexOf(san.charAt(0)) : -1;
+        if (letter >= 0) {
+            type = TYPES[letter];
+            start = 1;
+        }
+        ChessPiece.PieceType promotion = null;
+        if (end - start > 2) {
+            int promoted = PIECE_LETTERS.indexOf(san.charAt(end - 1));
+            if (promoted > 0 && promoted < ChessPiece.PieceType.PAWN.ordinal()) {
+                promotion = TYPES[promoted];
+                end -= san.charAt(end - 2) == '=' ? 2 : 1;
+            }
+        }
+        if (end - start < 2) {
+            throw notAMove(san);
+        }
+        int to = square(san.charAt(end - 2), san.charAt(end - 1));
+        if (to < 0) {
+            throw notAMove(san);
+        }
+
+        /* Whatever is left between the piece and the to square narrows down where it came from. */
+        long from = board.bitboard(us, type);
+        for (int i = start; i < end - 2; i++) {
+            char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                from &= Bitboards.FILE_A << (c - 'a');
+            } else if (c >= '1' && c <= '8') {
+                from &= Bitboards.RANK_1 << ((c - '1') * 8);
+            } else if (c != 'x' && c != ':' && c != '-') {
+                throw notAMove(san);
+            }
+        }
+        game.generateMoves(from, MoveGenerator.TACTICAL | MoveGenerator.QUIET, moves);
+        int found = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (Moves.to(move) == to && Moves.promotion(move) == promotion && (move & Moves.CASTLE) == 0) {
+                if (found != 0) {
+                    throw new InvalidMoveException(san + " is ambiguous.");
+                }
+                found = move;
+            }
+        }
+        if (found == 0) {
+            throw notLegal(san);
+        }
+        return found;
+    }
+
+    /**
+     * Appends the SAN for a move in the game's current position. The game is left as it was, but the move
+     * is played and taken back to see whether it gives check.
+     *
+     * @throws InvalidMoveException if the move is not legal in the position
+     */
+    public static void append(ChessGame game, int move, MoveList moves, StringBuilder out) throws InvalidMoveException {
+        ChessBoard board = game.getBoard();
+        int from = Moves.from(move), to = Moves.to(move);
+        ChessPiece piece = board.getPiece(from);
+        if (piece == null || piece.getTeamColor() != game.getTeamTurn()) {
+            throw new InvalidMoveException(Moves.toChessMove(move) + " is invalid.");
+        }
+        /* Only pieces like the one moving can make the move or need telling apart from it. */
+        ChessPiece.PieceType type = piece.getPieceType();
+        game.generateMoves(board.bitboard(game.getTeamTurn(), type), MoveGenerator.TACTICAL | MoveGenerator.QUIET,
+                moves);
+        int legal = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int candidate = moves.get(i);
+            if (Moves.from(candidate) == from && Moves.to(candidate) == to
+                    && Moves.promotion(candidate) == Moves.promotion(move)) {
+                legal = candidate;
+                break;
+            }
+        }
+        if (legal == 0) {
+            throw new InvalidMoveException(Moves.toChessMove(move) + " is invalid.");
+        }
+
+        if ((legal & Moves.CASTLE) != 0) {
+            out.append(to > from ? "O-O" : "O-O-O");
+        } else {
+            if (type == ChessPiece.PieceType.PAWN) {
+                if (Moves.isCapture(legal)) {
+                    out.append((char) ('a' + (from & 7)));
+                }
+            } else {
+                out.append(PIECE_LETTERS.charAt(type.ordinal()));
+                disambiguate(legal, moves, out);
+            }
+            if (Moves.isCapture(legal)) {
+                out.append('x');
+            }
+            out.append((char) ('a' + (to & 7))).append((char) ('1' + (to >>> 3)));
+            if (Moves.promotion(legal) != null) {
+                out.append('=').append(PIECE_LETTERS.charAt(Moves.promotion(legal).ordinal()));
+            }
+        }
+
+        game.doMove(legal);
+        if (game.isInCheck(game.getTeamTurn())) {
+            game.generateMoves(moves);
+            out.append(moves.isEmpty() ? '#' : '+');
+        }
+        game.undoMove();
+    }
+
+    /**
+     * The SAN for a move in the game's current position.
+     *
+     * @throws InvalidMoveException if the move is not legal in the position
+     */
+    public static String toSan(ChessGame game, ChessMove move) throws InvalidMoveException {
+        StringBuilder san = new StringBuilder(8);
+        append(game, Moves.encode(move), new MoveList(), san);
+        return san.toString();
+    }
+
+    /**
+     * Adds the from file, rank or both when another of the moves, all made by pieces of the same type, also
+     * reaches the square: the file if that tells them apart, otherwise the rank, otherwise the whole square.
+     */
+    private static void disambiguate(int move, MoveList moves, StringBuilder out) {
+        int from = Moves.from(move), to = Moves.to(move);
+        boolean others = false, sameFile = false, sameRank = false;
+        for (int i = 0; i < moves.size(); i++) {
+            int other = Moves.from(moves.get(i));
+            if (Moves.to(moves.get(i)) == to && other != from) {
+                others = true;
+                sameFile |= (other & 7) == (from & 7);
+                sameRank |= (other >>> 3) == (from >>> 3);
+            }
+        }
+        if (!others) {
+            return;
+        }
+        if (!sameFile) {
+            out.append((char) ('a' + (from & 7)));
+        } else if (!sameRank) {
+            out.append((char) ('1' + (from >>> 3)));
+        } else {
+            out.append((char) ('a' + (from & 7))).append((char) ('1' + (from >>> 3)));
+        }
+    }
+
+    private static int square(char file, char rank) {
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            return -1;
+        }
+        return (rank - '1') * 8 + (file - 'a');
+    }
+
+    private static InvalidMoveException notAMove(CharSequence san) {
+        return new InvalidMoveException(san + " is not a move.");
+    }
+
+    private static InvalidMoveException notLegal(CharSequence san) {
+        return new InvalidMoveException(san + " is invalid.");
+    }
+}
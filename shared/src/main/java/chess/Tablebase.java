@@ -0,0 +1,104 @@
+package chess;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Exact results for king and queen, king and rook, and king and pawn against a lone king, read from
+ * distance-to-mate files written by {@link TablebaseGenerator}.
+ * <p>
+ * Each file holds one byte per position, indexed by team to move and the squares of the stronger side's
+ * king, the lone king and the extra piece, always with white as the stronger side; positions where black
+ * has the piece are flipped top to bottom with the colors swapped before lookup. A byte of zero is a draw
+ * (or an impossible position), otherwise it is one more than the number of plies until mate. An odd number
+ * of plies means the team to move delivers it, an even number means the team to move is mated.
+ * <p>
+ * The files are memory-mapped, so a probe is an index calculation and one byte read with no allocation.
+ */
+public final class Tablebase {
+    /**
+     * Returned by probe for positions the loaded files do not cover.
+     */
+    public static final int NOT_FOUND = Integer.MIN_VALUE;
+
+    static final ChessPiece.PieceType[] PIECES = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.PAWN};
+    static final int SIZE = 2 * 64 * 64 * 64;
+
+    private final MappedByteBuffer[] tables = new MappedByteBuffer[6];
+
+    private Tablebase() {
+    }
+
+    /**
+     * Maps whichever of the files are in the directory. Missing ones just make their positions NOT_FOUND.
+     */
+    public static Tablebase open(Path directory) throws IOException {
+        Tablebase tablebase = new Tablebase();
+        for (ChessPiece.PieceType piece : PIECES) {
+            Path file = directory.resolve(fileName(piece));
+            if (Files.exists(file)) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    tablebase.tables[piece.ordinal()] = channel.map(FileChannel.MapMode.READ_ONLY, 0, SIZE);
+                }
+            }
+        }
+        return tablebase;
+    }
+
+    /**
+     * The position's exact value for the team to move, on the engine's scale: {@link Engine#MATE} minus the
+     * plies to mate when winning, its negative plus the plies when losing, and zero for a draw.
+     * NOT_FOUND if the position is not one of the covered endings or still has castling rights.
+     */
+    public int probe(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        long occupied = board.occupied();
+        if (Long.bitCount(occupied) != 3 || game.castlingRights() != 0) {
+            return NOT_FOUND;
+        }
+        long white = board.occupancy(ChessGame.TeamColor.WHITE);
+        ChessGame.TeamColor strong = Long.bitCount(white) == 2 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        ChessGame.TeamColor weak = ChessGame.opponent(strong);
+        long extra = board.occupancy(strong) & ~board.bitboard(strong, ChessPiece.PieceType.KING);
+        if (extra == 0 || board.bitboard(weak, ChessPiece.PieceType.KING) == 0) {
+            return NOT_FOUND;
+        }
+        MappedByteBuffer table = tables[board.getPiece(Long.numberOfTrailingZeros(extra)).getPieceType().ordinal()];
+        if (table == null) {
+            return NOT_FOUND;
+        }
+
+        /* Flipping the board top to bottom turns black's pieces into white's. */
+        int flip = strong == ChessGame.TeamColor.WHITE ? 0 : 56;
+        int strongKing = Long.numberOfTrailingZeros(board.bitboard(strong, ChessPiece.PieceType.KING)) ^ flip;
+        int weakKing = Long.numberOfTrailingZeros(board.bitboard(weak, ChessPiece.PieceType.KING)) ^ flip;
+        int weakToMove = game.getTeamTurn() == strong ? 0 : 1;
+        int value = table.get(index(weakToMove, strongKing, weakKing, Long.numberOfTrailingZeros(extra) ^ flip)) & 0xFF;
+        if (value == 0) {
+            return 0;
+        }
+        int plies = value - 1;
+        return plies % 2 == 1 ? Engine.MATE - plies : -Engine.MATE + plies;
+    }
+
+    /**
+     * Position index: black to move in the top bit, then the white king, black king and white piece squares.
+     */
+    static int index(int blackToMove, int whiteKing, int blackKing, int piece) {
+        return blackToMove << 18 | whiteKing << 12 | blackKing << 6 | piece;
+    }
+
+    static String fileName(ChessPiece.PieceType piece) {
+        return switch (piece) {
+            case QUEEN -> "kqk.dtm";
+            case ROOK -> "krk.dtm";
+            case PAWN -> "kpk.dtm";
+            default -> throw new IllegalArgumentException("No tablebase for " + piece);
+        };
+    }
+}
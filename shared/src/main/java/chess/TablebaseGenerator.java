@@ -0,0 +1,231 @@
+package chess;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Builds the {@link Tablebase} files by retrograde analysis.
+ * <p>
+ * Every position is first set up on a board and its legal moves counted with the regular move generator.
+ * Checkmates are lost in zero plies. From there the work runs backwards one ply at a time: every position
+ * that can move into a lost position is won, and a position whose moves have all been shown to reach
+ * won positions is lost. Moves that leave the ending, a capture of the extra piece or a pawn promoting,
+ * are settled up front from the smaller table they lead to. Whatever is never reached is a draw.
+ * <p>
+ * Each pass runs over all positions in parallel. Win updates are idempotent and the move counters are
+ * atomic, so the passes need no locking. The king and pawn table depends on the queen and rook tables,
+ * so the three are built in that order.
+ */
+public final class TablebaseGenerator {
+    private static final int ILLEGAL = -1;
+    private static final int DRAWN = -2;
+    private static final int MAX_PLIES = 254;
+
+    private static final ThreadLocal<ChessBoard> BOARDS = ThreadLocal.withInitial(ChessBoard::new);
+    private static final ThreadLocal<MoveList> LISTS = ThreadLocal.withInitial(MoveList::new);
+
+    private final ChessPiece.PieceType piece;
+    /* One more than the plies to mate once known, zero while unknown, or ILLEGAL or DRAWN. */
+    private final int[] values = new int[Tablebase.SIZE];
+    private final AtomicIntegerArray movesLeft = new AtomicIntegerArray(Tablebase.SIZE);
+    /* Plies to mate plus one through the best winning move out of the ending, or zero if there is none. */
+    private final int[] exitWins = new int[Tablebase.SIZE];
+    private final boolean[] exitDraws = new boolean[Tablebase.SIZE];
+    private final int[][] promotionTables;
+
+    private TablebaseGenerator(ChessPiece.PieceType piece, int[] queenTable, int[] rookTable) {
+        this.piece = piece;
+        this.promotionTables = new int[][]{queenTable, rookTable};
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Path.of(args.length > 0 ? args[0] : ".");
+        long start = System.nanoTime();
+        generate(directory);
+        System.out.printf("Wrote tablebases to %s in %.1f s%n", directory.toAbsolutePath(), (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Generates all three tables and writes them into the directory, creating it if needed.
+     */
+    public static void generate(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        int[] queen = build(ChessPiece.PieceType.QUEEN, null, null);
+        write(directory, ChessPiece.PieceType.QUEEN, queen);
+        int[] rook = build(ChessPiece.PieceType.ROOK, null, null);
+        write(directory, ChessPiece.PieceType.ROOK, rook);
+        write(directory, ChessPiece.PieceType.PAWN, build(ChessPiece.PieceType.PAWN, queen, rook));
+    }
+
+    static int[] build(ChessPiece.PieceType piece, int[] queenTable, int[] rookTable) {
+        TablebaseGenerator generator = new TablebaseGenerator(piece, queenTable, rookTable);
+        IntStream.range(0, Tablebase.SIZE).parallel().forEach(generator::initialize);
+        int lastExit = 0;
+        for (int exit : generator.exitWins) {
+            lastExit = Math.max(lastExit, exit);
+        }
+        for (int plies = 0; plies < MAX_PLIES; plies++) {
+            int level = plies + 1;
+            IntStream.range(0, Tablebase.SIZE).parallel().forEach(index -> generator.resolveExit(index, level));
+            boolean any = IntStream.range(0, Tablebase.SIZE).parallel()
+                    .map(index -> generator.propagate(index, level)).max().orElse(0) > 0;
+            if (!any && level >= lastExit) {
+                break;
+            }
+        }
+        return generator.values;
+    }
+
+    private static void write(Path directory, ChessPiece.PieceType piece, int[] values) throws IOException {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) Math.max(values[i], 0);
+        }
+        Files.write(directory.resolve(Tablebase.fileName(piece)), bytes);
+    }
+
+    /**
+     * Classifies one position: impossible, mate or stalemate, or otherwise how many of its moves stay in
+     * the ending and what the moves that leave it are worth.
+     */
+    private void initialize(int index) {
+        int blackToMove = index >>> 18, whiteKing = (index >>> 12) & 63, blackKing = (index >>> 6) & 63,
+                square = index & 63;
+        if (whiteKing == blackKing || whiteKing == square || blackKing == square
+                || (Bitboards.kingAttacks(whiteKing) & (1L << blackKing)) != 0
+                || (piece == ChessPiece.PieceType.PAWN && (square < 8 || square >= 56))) {
+            values[index] = ILLEGAL;
+            return;
+        }
+        ChessBoard board = BOARDS.get();
+        board.setPiece(whiteKing, ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.setPiece(blackKing, ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        board.setPiece(square, ChessPiece.of(ChessGame.TeamColor.WHITE, piece));
+        try {
+            ChessGame.TeamColor us = blackToMove == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            int theirKing = blackToMove == 0 ? blackKing : whiteKing;
+            if (Bitboards.isAttacked(board, theirKing, us)) {
+                values[index] = ILLEGAL;
+                return;
+            }
+            MoveList moves = LISTS.get();
+            moves.clear();
+            MoveGenerator.legalMoves(board, us, 0, -1, -1L, moves);
+            if (moves.isEmpty()) {
+                int ourKing = blackToMove == 0 ? whiteKing : blackKing;
+                values[index] = Bitboards.isAttacked(board, ourKing, ChessGame.opponent(us)) ? 1 : DRAWN;
+                return;
+            }
+            int staying = 0;
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                if (Moves.isCapture(move)) {
+                    exitDraws[index] = true;
+                } else if (Moves.promotion(move) != null) {
+                    promotion(index, move, whiteKing, blackKing);
+                } else {
+                    staying++;
+                }
+            }
+            movesLeft.set(index, staying);
+        } finally {
+            board.setPiece(whiteKing, null);
+            board.setPiece(blackKing, null);
+            board.setPiece(square, null);
+        }
+    }
+
+    /**
+     * A pawn promoting leaves the table. Promoting to a queen or rook is looked up in that piece's table,
+     * and a bishop or knight cannot mate, so it is a draw.
+     */
+    private void promotion(int index, int move, int whiteKing, int blackKing) {
+        ChessPiece.PieceType promotion = Moves.promotion(move);
+        int[] table = promotion == ChessPiece.PieceType.QUEEN ? promotionTables[0]
+                : promotion == ChessPiece.PieceType.ROOK ? promotionTables[1] : null;
+        int value = table == null ? 0 : table[Tablebase.index(1, whiteKing, blackKing, Moves.to(move))];
+        if (value > 0 && (value - 1) % 2 == 0) {
+            /* Black to move is mated in value - 1 plies, so promoting wins one ply later. */
+            int win = value + 1;
+            if (exitWins[index] == 0 || win < exitWins[index]) {
+                exitWins[index] = win;
+            }
+        } else {
+            exitDraws[index] = true;
+        }
+    }
+
+    /**
+     * Settles positions whose best result is a winning move out of the ending, once the search reaches its length.
+     */
+    private void resolveExit(int index, int level) {
+        if (values[index] == 0 && exitWins[index] == level) {
+            values[index] = level;
+        }
+    }
+
+    /**
+     * Passes a result settled at this level back to every position one move before it.
+     *
+     * @return 1 if the position was settled at this level, so the search has to keep going
+     */
+    private int propagate(int index, int level) {
+        if (values[index] != level) {
+            return 0;
+        }
+        int blackToMove = index >>> 18, whiteKing = (index >>> 12) & 63, blackKing = (index >>> 6) & 63,
+                square = index & 63;
+        long occupied = 1L << whiteKing | 1L << blackKing | 1L << square;
+        boolean lost = (level - 1) % 2 == 0;
+        if (blackToMove == 1) {
+            /* White just moved: take back a king move or a move of the extra piece. */
+            for (long from = Bitboards.kingAttacks(whiteKing) & ~occupied; from != 0; from &= from - 1) {
+                settle(Tablebase.index(0, Long.numberOfTrailingZeros(from), blackKing, square), level, lost);
+            }
+            for (long from = retractions(square, occupied); from != 0; from &= from - 1) {
+                settle(Tablebase.index(0, whiteKing, blackKing, Long.numberOfTrailingZeros(from)), level, lost);
+            }
+        } else {
+            for (long from = Bitboards.kingAttacks(blackKing) & ~occupied; from != 0; from &= from - 1) {
+                settle(Tablebase.index(1, whiteKing, Long.numberOfTrailingZeros(from), square), level, lost);
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Squares the extra piece could have come from without capturing.
+     */
+    private long retractions(int square, long occupied) {
+        return switch (piece) {
+            case QUEEN -> (Bitboards.rookAttacks(square, occupied) | Bitboards.bishopAttacks(square, occupied)) & ~occupied;
+            case ROOK -> Bitboards.rookAttacks(square, occupied) & ~occupied;
+            case PAWN -> {
+                long from = (1L << square >>> 8) & ~occupied & ~Bitboards.RANK_1;
+                if (square >>> 3 == 3 && from != 0) {
+                    from |= (1L << square >>> 16) & ~occupied;
+                }
+                yield from;
+            }
+            default -> 0;
+        };
+    }
+
+    /**
+     * Updates the position before a settled one. A move into a lost position wins; a position is lost
+     * once its last move into the ending is known to reach a won position and it has no way out either.
+     */
+    private void settle(int previous, int level, boolean childLost) {
+        if (values[previous] != 0) {
+            return;
+        }
+        if (childLost) {
+            values[previous] = level + 1;
+        } else if (movesLeft.decrementAndGet(previous) == 0 && !exitDraws[previous] && exitWins[previous] == 0) {
+            values[previous] = level + 1;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of search results keyed by position key. Each entry is two longs, the full key
+ * and the packed data, so a lookup is one masked index and one comparison. A new result always replaces
+ * a different position's entry, and replaces the same position's entry unless that one was searched deeper.
+ * <p>
+ * Data layout: move in bits 0-17, score plus 32768 in bits 18-33, depth in bits 34-41, bound in
+ * bits 42-43 and a used bit at 63, so a stored entry is never zero.
+ */
+final class TranspositionTable {
+    static final int EXACT = 0;
+    static final int LOWER = 1;
+    static final int UPPER = 2;
+
+    private static final long USED = 1L << 63;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+
+    TranspositionTable(int megabytes) {
+        long entries = Long.highestOneBit(Math.max(1L, (long) megabytes << 20) / 16);
+        int size = (int) Math.min(Math.max(entries, 1024), 1 << 26);
+        keys = new long[size];
+        data = new long[size];
+        mask = size - 1;
+    }
+
+    /**
+     * The data stored for the key, or zero if the position is not in the table.
+     */
+    long probe(long key) {
+        int index = (int) key & mask;
+        return keys[index] == key ? data[index] : 0;
+    }
+
+    void store(long key, int move, int score, int depth, int bound) {
+        int index = (int) key & mask;
+        if (keys[index] == key && data[index] != 0 && depth < depth(data[index])) {
+            return;
+        }
+        keys[index] = key;
+        data[index] = USED | (move & 0x3FFFFL) | (long) (score + 32768) << 18 | (long) Math.min(depth, 255) << 34
+                | (long) bound << 42;
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+    }
+
+    static int move(long data) {
+        return (int) (data & 0x3FFFF);
+    }
+
+    static int score(long data) {
+        return (int) ((data >>> 18) & 0xFFFF) - 32768;
+    }
+
+    static int depth(long data) {
+        return (int) ((data >>> 34) & 0xFF);
+    }
+
+    static int bound(long data) {
+        return (int) ((data >>> 42) & 3);
+    }
+}
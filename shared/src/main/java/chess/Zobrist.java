@@ -0,0 +1,64 @@
+package chess;
+
+/**
+ * Random keys for Zobrist hashing. A position key is the XOR of one key per piece on its square,
+ * the side key when black is to move, and keys for the castling rights and en passant column,
+ * so a single move only has to XOR a few keys in and out.
+ * The keys come from a fixed seed so position keys stay the same from one run to the next.
+ */
+final class Zobrist {
+    private static final long[] PIECES = new long[12 * 64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT = new long[8];
+    static final long BLACK_TO_MOVE;
+
+    static {
+        long seed = 0x2545F4914F6CDD1DL;
+        for (int i = 0; i < PIECES.length; i++) {
+            seed = next(seed);
+            PIECES[i] = mix(seed);
+        }
+        seed = next(seed);
+        BLACK_TO_MOVE = mix(seed);
+        for (int i = 1; i < CASTLING.length; i++) {
+            seed = next(seed);
+            CASTLING[i] = mix(seed);
+        }
+        for (int i = 0; i < EN_PASSANT.length; i++) {
+            seed = next(seed);
+            EN_PASSANT[i] = mix(seed);
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    static long piece(ChessPiece piece, int square) {
+        return PIECES[piece.index() * 64 + square];
+    }
+
+    /**
+     * Key for a set of castling rights. Having no rights left hashes to zero.
+     */
+    static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    /**
+     * Key for an en passant target square. Only the column matters, since the row follows from the side to move.
+     */
+    static long enPassant(int square) {
+        return EN_PASSANT[square & 7];
+    }
+
+    /* SplitMix64, written out so the keys never depend on the JDK's random number generators. */
+    private static long next(long seed) {
+        return seed + 0x9E3779B97F4A7C15L;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
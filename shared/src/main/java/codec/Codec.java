@@ -0,0 +1,37 @@
+package codec;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import websocket.messages.ErrorMessage;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.MoveAppliedMessage;
+import websocket.messages.NotificationMessage;
+import websocket.messages.ServerMessage;
+
+import java.util.Map;
+
+/**
+ * The one Gson the client and server share for requests, results, models, commands and messages.
+ * <p>
+ * Building a Gson works out the fields of every class it meets, so making one per call paid that again on
+ * every request and message. This one is built once; Gson is thread-safe, so any thread can use it at once.
+ * ChessGame and ChessBoard bring their own compact adapters through @JsonAdapter. A UserGameCommand or
+ * ServerMessage is read into the subclass its commandType or serverMessageType names, without a second parse.
+ */
+public final class Codec {
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapterFactory(new CommandAdapterFactory())
+            .registerTypeAdapterFactory(new DiscriminatorAdapterFactory<>(ServerMessage.class, "serverMessageType",
+                    Map.of(ServerMessage.ServerMessageType.LOAD_GAME.name(), LoadGameMessage.class,
+                            ServerMessage.ServerMessageType.ERROR.name(), ErrorMessage.class,
+                            ServerMessage.ServerMessageType.NOTIFICATION.name(), NotificationMessage.class,
+                            ServerMessage.ServerMessageType.MOVE_APPLIED.name(), MoveAppliedMessage.class)))
+            .create();
+
+    private Codec() {
+    }
+
+    public static Gson gson() {
+        return GSON;
+    }
+}
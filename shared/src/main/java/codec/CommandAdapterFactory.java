@@ -0,0 +1,79 @@
+package codec;
+
+import chess.ChessMove;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import websocket.commands.*;
+
+import java.io.IOException;
+
+/**
+ * Reads a UserGameCommand in one streaming pass as the subclass its commandType names. The fields of every
+ * command are picked up in whatever order they come, commandType included, and the command is built once
+ * the object ends, so a frame is never parsed twice or held as a tree. Unknown fields are skipped, and a
+ * missing or unknown commandType gives a plain UserGameCommand with a null type. Commands are written as usual.
+ */
+final class CommandAdapterFactory implements TypeAdapterFactory {
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() != UserGameCommand.class) {
+            return null;
+        }
+        TypeAdapter<UserGameCommand> base = gson.getDelegateAdapter(this, TypeToken.get(UserGameCommand.class));
+        TypeAdapter<UserGameCommand.CommandType> types = gson.getAdapter(UserGameCommand.CommandType.class);
+        TypeAdapter<ChessMove> moves = gson.getAdapter(ChessMove.class);
+
+        return (TypeAdapter<T>) new TypeAdapter<UserGameCommand>() {
+            @Override
+            public void write(JsonWriter out, UserGameCommand value) throws IOException {
+                if (value.getClass() == UserGameCommand.class) {
+                    base.write(out, value);
+                } else {
+                    ((TypeAdapter<UserGameCommand>) gson.getAdapter(value.getClass())).write(out, value);
+                }
+            }
+
+            @Override
+            public UserGameCommand read(JsonReader in) throws IOException {
+                UserGameCommand.CommandType commandType = null;
+                String authToken = null;
+                Integer gameID = null;
+                ChessMove move = null;
+                boolean moveDeltas = false;
+                in.beginObject();
+                while (in.hasNext()) {
+                    String name = in.nextName();
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                        continue;
+                    }
+                    switch (name) {
+                        case "commandType" -> commandType = types.read(in);
+                        case "authToken" -> authToken = in.nextString();
+                        case "gameID" -> gameID = in.nextInt();
+                        case "move" -> move = moves.read(in);
+                        case "moveDeltas" -> moveDeltas = in.nextBoolean();
+                        default -> in.skipValue();
+                    }
+                }
+                in.endObject();
+                if (commandType == null) {
+                    return new UserGameCommand(null, authToken, gameID);
+                }
+                return switch (commandType) {
+                    case CONNECT -> new ConnectCommand(authToken, gameID, moveDeltas);
+                    case MAKE_MOVE -> new MakeMoveCommand(authToken, gameID, move);
+                    case LEAVE -> new LeaveCommand(authToken, gameID);
+                    case RESIGN -> new ResignCommand(authToken, gameID);
+                    case RESYNC -> new ResyncCommand(authToken, gameID);
+                };
+            }
+        }.nullSafe();
+    }
+}
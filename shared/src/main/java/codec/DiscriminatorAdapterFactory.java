@@ -0,0 +1,70 @@
+package codec;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads a base class as whichever subclass a field of the JSON names, so a message can be decoded straight
+ * into its concrete class instead of once as the base class to find its type and again as the subclass.
+ * <p>
+ * The field may come anywhere in the object (Gson writes a superclass's fields last), so the object is read
+ * into a tree first and the subclass built from that: one pass over the text either way. A value naming
+ * no known subclass is read as the base class. Subclasses are written as usual.
+ */
+final class DiscriminatorAdapterFactory<T> implements TypeAdapterFactory {
+    private final Class<T> base;
+    private final String field;
+    private final Map<String, Class<? extends T>> subtypes;
+
+    DiscriminatorAdapterFactory(Class<T> base, String field, Map<String, Class<? extends T>> subtypes) {
+        this.base = base;
+        this.field = field;
+        this.subtypes = subtypes;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> TypeAdapter<R> create(Gson gson, TypeToken<R> type) {
+        if (type.getRawType() != base) {
+            return null;
+        }
+        TypeAdapter<JsonElement> trees = gson.getAdapter(JsonElement.class);
+        TypeAdapter<T> baseAdapter = gson.getDelegateAdapter(this, TypeToken.get(base));
+        Map<String, TypeAdapter<? extends T>> adapters = new HashMap<>();
+        subtypes.forEach((name, subtype) -> adapters.put(name, gson.getAdapter(subtype)));
+
+        return (TypeAdapter<R>) new TypeAdapter<T>() {
+            @Override
+            public void write(JsonWriter out, T value) throws IOException {
+                if (value.getClass() == base) {
+                    baseAdapter.write(out, value);
+                } else {
+                    ((TypeAdapter<Object>) gson.getAdapter(value.getClass())).write(out, value);
+                }
+            }
+
+            @Override
+            public T read(JsonReader in) throws IOException {
+                JsonElement tree = trees.read(in);
+                TypeAdapter<? extends T> adapter = baseAdapter;
+                if (tree.isJsonObject()) {
+                    JsonElement name = ((JsonObject) tree).get(field);
+                    if (name != null && name.isJsonPrimitive()) {
+                        adapter = adapters.getOrDefault(name.getAsString(), baseAdapter);
+                    }
+                }
+                return adapter.fromJsonTree(tree);
+            }
+        }.nullSafe();
+    }
+}
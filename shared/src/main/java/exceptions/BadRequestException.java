@@ -1,6 +1,6 @@
 package exceptions;
 
-import com.google.gson.Gson;
+import codec.Codec;
 
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -11,7 +11,7 @@ public class BadRequestException extends Exception {
         super(message);
     }
     public static BadRequestException fromJson(InputStream stream) {
-        var map = new Gson().fromJson(new InputStreamReader(stream), HashMap.class);
+        var map = Codec.gson().fromJson(new InputStreamReader(stream), HashMap.class);
         var status = ((Double)map.get("status")).intValue();
         String message = map.get("message").toString();
         return new BadRequestException(message);
@@ -1,8 +1,21 @@
 package websocket.commands;
 
 public class ConnectCommand extends UserGameCommand {
+    /**
+     * Whether the client understands MoveAppliedMessage. Clients that leave it out get a LoadGameMessage after every move.
+     */
+    private boolean moveDeltas;
 
     public ConnectCommand(String authToken, Integer gameID) {
         super(CommandType.CONNECT, authToken, gameID);
     }
+
+    public ConnectCommand(String authToken, Integer gameID, boolean moveDeltas) {
+        super(CommandType.CONNECT, authToken, gameID);
+        this.moveDeltas = moveDeltas;
+    }
+
+    public boolean moveDeltas() {
+        return moveDeltas;
+    }
 }
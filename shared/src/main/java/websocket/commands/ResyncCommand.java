@@ -0,0 +1,11 @@
+package websocket.commands;
+
+/**
+ * Asks the server to send the whole game again, after a MoveAppliedMessage did not match the client's copy.
+ */
+public class ResyncCommand extends UserGameCommand {
+
+    public ResyncCommand(String authToken, Integer gameID) {
+        super(CommandType.RESYNC, authToken, gameID);
+    }
+}
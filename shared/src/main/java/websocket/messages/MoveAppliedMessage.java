@@ -0,0 +1,86 @@
+package websocket.messages;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+/**
+ * Sent after a move instead of a whole LoadGameMessage to connections that asked for it on connect.
+ * The client plays the move on its own copy of the game and checks its position key against this one;
+ * if they differ it sends a ResyncCommand to get the full game back.
+ * <p>
+ * The move is written as its from and to squares and any promotion, like e7e8q, to keep the message small.
+ */
+public class MoveAppliedMessage extends ServerMessage {
+    private static final String PROMOTIONS = "qbnr";
+    private static final ChessPiece.PieceType[] PROMOTION_TYPES = {ChessPiece.PieceType.QUEEN,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK};
+
+    String move;
+    ChessGame.TeamColor teamTurn;
+    ChessGame.GameStatus status;
+    long positionKey;
+
+    public MoveAppliedMessage(ChessMove move, ChessGame.TeamColor teamTurn, ChessGame.GameStatus status,
+                              long positionKey) {
+        super(ServerMessageType.MOVE_APPLIED);
+        StringBuilder text = new StringBuilder(5);
+        appendSquare(text, move.getStartPosition());
+        appendSquare(text, move.getEndPosition());
+        if (move.getPromotionPiece() != null) {
+            for (int i = 0; i < PROMOTION_TYPES.length; i++) {
+                if (PROMOTION_TYPES[i] == move.getPromotionPiece()) {
+                    text.append(PROMOTIONS.charAt(i));
+                }
+            }
+        }
+        this.move = text.toString();
+        this.teamTurn = teamTurn;
+        this.status = status;
+        this.positionKey = positionKey;
+    }
+
+    /**
+     * The move, or null if the text sent is not one.
+     */
+    public ChessMove move() {
+        if (move == null || move.length() < 4 || move.length() > 5) {
+            return null;
+        }
+        ChessPosition start = square(move.charAt(0), move.charAt(1));
+        ChessPosition end = square(move.charAt(2), move.charAt(3));
+        ChessPiece.PieceType promotion = null;
+        if (move.length() == 5) {
+            int index = PROMOTIONS.indexOf(move.charAt(4));
+            if (index < 0) {
+                return null;
+            }
+            promotion = PROMOTION_TYPES[index];
+        }
+        return start == null || end == null ? null : new ChessMove(start, end, promotion);
+    }
+
+    public ChessGame.TeamColor teamTurn() {
+        return teamTurn;
+    }
+
+    public ChessGame.GameStatus status() {
+        return status;
+    }
+
+    public long positionKey() {
+        return positionKey;
+    }
+
+    private static void appendSquare(StringBuilder text, ChessPosition position) {
+        text.append((char) ('a' + position.getColumn() - 1)).append((char) ('0' + position.getRow()));
+    }
+
+    private static ChessPosition square(char file, char rank) {
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            return null;
+        }
+        return new ChessPosition(rank - '0', file - 'a' + 1);
+    }
+}
@@ -0,0 +1,99 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EngineTests {
+
+    @Test
+    public void findsBackRankMate() {
+        String board = """
+                | | | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |P|P|P|
+                |R| | | | | |K| |
+                """;
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard(board));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        ChessGame before = new ChessGame();
+        before.setBoard(TestUtilities.loadBoard(board));
+        before.setTeamTurn(ChessGame.TeamColor.WHITE);
+
+        Engine.Result result = new Engine(1).search(game, Engine.Limits.depth(4));
+        assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.bestMove());
+        assertEquals(Engine.MATE - 1, result.score());
+        assertEquals(before, game);
+    }
+
+    @Test
+    public void winsHangingQueen() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                |r|n|b| |k|b|n|r|
+                |p|p|p|p| |p|p|p|
+                | | | | | | | | |
+                | | | | |p| | | |
+                | | | | | | | |q|
+                | | | | | |N| | |
+                |P|P|P|P|P|P|P|P|
+                |R|N|B|Q|K|B| |R|
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        Engine.Result result = new Engine(1).search(game, Engine.Limits.depth(3));
+        assertEquals(new ChessMove(new ChessPosition(3, 6), new ChessPosition(4, 8), null), result.bestMove());
+        assertTrue(result.score() > 500);
+        assertEquals(result.bestMove(), result.principalVariation().get(0));
+    }
+
+    @Test
+    public void stopsAtNodeLimit() {
+        Engine.Result result = new Engine(1).search(new ChessGame(), Engine.Limits.nodes(5000));
+        assertNotNull(result.bestMove());
+        assertTrue(result.nodes() <= 5000);
+        assertTrue(new ChessGame().validMoves(ChessGame.TeamColor.WHITE).contains(result.bestMove()));
+    }
+
+    @Test
+    public void runningEvaluationMatchesScan() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                |r| | | |k| | |r|
+                |P|p|p|p| |p|p|p|
+                | |b| | | |n|b|N|
+                |n|P| | | | | | |
+                |B|B|P| |P| | | |
+                |q| | | | |N| | |
+                |P|p| |P| | |P|P|
+                |R| | |Q| |R|K| |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        assertEquals(Evaluation.scan(game), Evaluation.evaluate(game));
+
+        /* A seeded random game through captures, promotions and castling, then back again. */
+        Random random = new Random(7);
+        MoveList moves = new MoveList();
+        int played = 0;
+        for (; played < 60; played++) {
+            game.generateMoves(moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            game.doMove(moves.get(random.nextInt(moves.size())));
+            assertEquals(Evaluation.scan(game), Evaluation.evaluate(game));
+            assertEquals(Evaluation.scan(game), Evaluation.evaluate(game.copy()));
+        }
+        for (; played > 0; played--) {
+            game.undoMove();
+            assertEquals(Evaluation.scan(game), Evaluation.evaluate(game));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FenTests {
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static ChessMove move(int startRow, int startColumn, int endRow, int endColumn) {
+        return new ChessMove(new ChessPosition(startRow, startColumn), new ChessPosition(endRow, endColumn), null);
+    }
+
+    @Test
+    public void startingPosition() {
+        ChessGame game = ChessGame.fromFen(START);
+        assertEquals(new ChessGame(), game);
+        assertEquals(new ChessGame().positionKey(), game.positionKey());
+        assertEquals(START, new ChessGame().toFen());
+    }
+
+    @Test
+    public void roundTrips() {
+        for (String fen : List.of(
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3")) {
+            assertEquals(fen, ChessGame.fromFen(fen).toFen());
+        }
+    }
+
+    @Test
+    public void tracksMovesPlayed() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1", game.toFen());
+        game.makeMove(move(8, 7, 6, 6));
+        game.makeMove(move(1, 5, 2, 5));
+        assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPPKPPP/RNBQ1BNR b kq - 2 2", game.toFen());
+        assertEquals(game.positionKey(), ChessGame.fromFen(game.toFen()).positionKey());
+        game.undoMove();
+        game.undoMove();
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1", game.toFen());
+    }
+
+    @Test
+    public void enPassantOnlyWhenCapturable() {
+        /* No black pawn can take on e3, so the square is dropped as doMove would. */
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1",
+                ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1").toFen());
+        ChessGame game = ChessGame.fromFen("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3");
+        assertTrue(game.validMoves(new ChessPosition(5, 5)).contains(move(5, 5, 6, 6)));
+    }
+
+    @Test
+    public void clocksAreOptional() {
+        ChessGame game = ChessGame.fromFen("8/8/8/4k3/8/8/8/4K2R w K -");
+        assertEquals(0, game.getHalfmoveClock());
+        assertEquals(1, game.getFullmoveNumber());
+        assertEquals("8/8/8/4k3/8/8/8/4K2R w K - 0 1", game.toFen());
+    }
+
+    @Test
+    public void rejectsBadFen() {
+        for (String fen : List.of("", "8/8/8/8/8/8/8 w - - 0 1", "9/8/8/8/8/8/8/8 w - - 0 1",
+                "8/8/8/8/8/8/8/8 x - - 0 1", "8/8/8/8/8/8/8/8 w X - 0 1", "8/8/8/8/8/8/8/8 w - e9 0 1",
+                "8/8/8/8/8/8/8/7z w - - 0 1", "8/8/8/8/8/8/8/8 w - - a 1", "8/8/8/8/8/8/8/8 w  - - 0 1",
+                /* En passant targets on the wrong rank for the side to move, or with no pawn that just moved. */
+                "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR w KQkq e3 0 1",
+                "rnbqkbnr/ppp1pppp/8/3p4/4P3/8/PPPP1PPP/RNBQKBNR b KQkq d6 0 2",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e6 0 1",
+                "4k3/8/4p3/4p3/8/8/8/4K3 w - e6 0 1")) {
+            assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), fen);
+        }
+    }
+}
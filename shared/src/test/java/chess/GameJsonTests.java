@@ -0,0 +1,104 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameJsonTests {
+    private static final Gson GSON = new Gson();
+
+    private static ChessMove move(int startRow, int startColumn, int endRow, int endColumn) {
+        return new ChessMove(new ChessPosition(startRow, startColumn), new ChessPosition(endRow, endColumn), null);
+    }
+
+    /* A board in the layout Gson wrote by reflection before the adapters. */
+    private static String legacyBoard(ChessBoard board) {
+        StringBuilder json = new StringBuilder("{\"pieces\":[");
+        ChessPiece[][] pieces = board.getPieces();
+        for (int row = 0; row < 8; row++) {
+            json.append(row > 0 ? ",[" : "[");
+            for (int column = 0; column < 8; column++) {
+                ChessPiece piece = pieces[row][column];
+                json.append(column > 0 ? "," : "");
+                json.append(piece == null ? "null" : "{\"color\":\"" + piece.getTeamColor()
+                        + "\",\"type\":\"" + piece.getPieceType() + "\"}");
+            }
+            json.append(']');
+        }
+        return json.append("]}").toString();
+    }
+
+    @Test
+    public void compactRoundTrip() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        game.makeMove(move(7, 4, 5, 4));
+        game.makeMove(move(4, 5, 5, 5));
+        game.makeMove(move(7, 6, 5, 6));
+        game.setGameOver();
+        String json = GSON.toJson(game);
+        assertTrue(json.length() < 150, json);
+        assertTrue(json.contains("\"fen\":\"rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6\""), json);
+
+        ChessGame reloaded = GSON.fromJson(json, ChessGame.class);
+        assertEquals(game, reloaded);
+        assertEquals(game.toFen(), reloaded.toFen());
+        assertEquals(game.positionKey(), reloaded.positionKey());
+        assertTrue(reloaded.isGameOver());
+        assertTrue(reloaded.validMoves(new ChessPosition(5, 5)).contains(move(5, 5, 6, 6)));
+    }
+
+    @Test
+    public void keepsRepeatablePositions() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        game.makeMove(move(7, 5, 5, 5));
+        ChessMove[] shuffle = {move(1, 7, 3, 6), move(8, 7, 6, 6), move(3, 6, 1, 7), move(6, 6, 8, 7)};
+        for (ChessMove shuffleMove : shuffle) {
+            game.makeMove(shuffleMove);
+        }
+        game.makeMove(shuffle[0]);
+        game.makeMove(shuffle[1]);
+        game.makeMove(shuffle[2]);
+        ChessGame reloaded = GSON.fromJson(GSON.toJson(game), ChessGame.class);
+        assertEquals(2, reloaded.repetitionCount());
+        reloaded.makeMove(shuffle[3]);
+        assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, reloaded.getStatus());
+    }
+
+    @Test
+    public void boardAsPlacement() {
+        ChessBoard board = ChessGame.fromFen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1").getBoard();
+        assertEquals("\"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8\"", GSON.toJson(board));
+        assertEquals(board, GSON.fromJson(GSON.toJson(board), ChessBoard.class));
+        assertThrows(JsonParseException.class, () -> GSON.fromJson("\"8/8/8\"", ChessBoard.class));
+        assertThrows(JsonParseException.class, () -> GSON.fromJson("{\"fen\":\"8/8 w\"}", ChessGame.class));
+    }
+
+    @Test
+    public void readsOlderLayout() {
+        ChessGame expected = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b Kq - 3 7");
+        String json = "{\"teamTurn\":\"BLACK\",\"board\":" + legacyBoard(expected.getBoard())
+                + ",\"gameOver\":false,\"castlingRights\":9,\"enPassantSquare\":-1,\"halfmoveClock\":3,"
+                + "\"fullmoveNumber\":7,\"history\":[5,6,7,0,0,0],\"historyLength\":3}";
+        ChessGame game = GSON.fromJson(json, ChessGame.class);
+        assertEquals(expected.toFen(), game.toFen());
+        assertEquals(expected.positionKey(), game.positionKey());
+        assertEquals(3, GSON.fromJson(GSON.toJson(game), ChessGame.class).getHalfmoveClock());
+    }
+
+    @Test
+    public void readsRowsWithoutCastlingRights() {
+        ChessGame expected = ChessGame.fromFen("r3k2r/pppppppp/8/8/8/8/PPPPPPPP/4K2R w Kkq - 0 1");
+        String json = "{\"teamTurn\":\"WHITE\",\"board\":" + legacyBoard(expected.getBoard()) + ",\"gameOver\":false}";
+        ChessGame game = GSON.fromJson(json, ChessGame.class);
+        assertEquals(expected.toFen(), game.toFen());
+        assertEquals(expected.positionKey(), game.positionKey());
+
+        ChessGame viaSetBoard = new ChessGame();
+        viaSetBoard.setBoard(expected.getBoard().copy());
+        assertEquals(viaSetBoard.positionKey(), game.positionKey());
+    }
+}
@@ -0,0 +1,88 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameStatusTests {
+
+    @Test
+    public void foolsMate() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus());
+        game.makeMove(new ChessMove(new ChessPosition(2, 6), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(2, 7), new ChessPosition(4, 7), null));
+        assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus());
+        game.makeMove(new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null));
+        assertEquals(ChessGame.GameStatus.CHECKMATE, game.getStatus());
+        assertTrue(game.getStatus().isGameOver());
+        assertFalse(game.getStatus().isDraw());
+
+        game.undoMove();
+        assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus());
+    }
+
+    @Test
+    public void statusFollowsBoardEdits() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | |B| |K| | | |
+                """));
+        assertEquals(ChessGame.GameStatus.INSUFFICIENT_MATERIAL, game.getStatus());
+        assertTrue(game.getStatus().isDraw());
+
+        game.getBoard().addPiece(new ChessPosition(2, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus());
+    }
+
+    @Test
+    public void threefoldRepetition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        ChessMove[] shuffle = {
+                new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null),
+                new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null),
+                new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null),
+                new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null),
+        };
+        for (ChessMove move : shuffle) {
+            game.makeMove(move);
+        }
+        assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus());
+        for (ChessMove move : shuffle) {
+            game.makeMove(move);
+        }
+        assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, game.getStatus());
+        assertEquals(8, game.getHalfmoveClock());
+
+        game.undoMove();
+        assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus());
+        ChessGame reloaded = new Gson().fromJson(new Gson().toJson(game), ChessGame.class);
+        reloaded.makeMove(shuffle[3]);
+        assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, reloaded.getStatus());
+    }
+
+    @Test
+    public void fiftyMoveRule() throws InvalidMoveException {
+        // 99 plies into a quiet stretch; one more quiet move ends it.
+        ChessGame game = ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 99 50");
+        assertEquals(99, game.getHalfmoveClock());
+        assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus());
+
+        game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        assertEquals(ChessGame.GameStatus.FIFTY_MOVE_RULE, game.getStatus());
+        game.undoMove();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        assertEquals(0, game.getHalfmoveClock());
+        assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus());
+    }
+}
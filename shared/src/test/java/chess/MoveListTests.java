@@ -0,0 +1,28 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveListTests {
+
+    @Test
+    public void growsFromAnyCapacity() {
+        for (int capacity : new int[]{0, 1, 3}) {
+            MoveList moves = new MoveList(capacity);
+            for (int i = 1; i <= 300; i++) {
+                moves.add(i);
+            }
+            assertEquals(300, moves.size());
+            assertEquals(1, moves.get(0));
+            assertEquals(300, moves.get(299));
+        }
+    }
+
+    @Test
+    public void holdsAllMovesOfAPosition() {
+        MoveList moves = new MoveList(0);
+        ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1").generateMoves(moves);
+        assertEquals(48, moves.size());
+    }
+}
@@ -0,0 +1,95 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MovePickerTests {
+
+    private static ChessGame game(String board, ChessGame.TeamColor turn) {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard(board));
+        game.setTeamTurn(turn);
+        return game;
+    }
+
+    private static ChessMove move(String text) {
+        return new ChessMove(new ChessPosition(text.charAt(1) - '0', text.charAt(0) - 'a' + 1),
+                new ChessPosition(text.charAt(3) - '0', text.charAt(2) - 'a' + 1), null);
+    }
+
+    @Test
+    public void ordersCapturesAndHoldsBackLosingOnes() {
+        ChessGame game = game("""
+                |k| | | | | | | |
+                | | | | | | | | |
+                | | |p| | | | | |
+                | |r| |n| | | |Q|
+                | | |P| | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """, ChessGame.TeamColor.WHITE);
+        MovePicker picker = new MovePicker(game);
+
+        /* The pawn takes the rook before the knight; the queen taking the knight
+         * loses her to the pawn on c6, so that comes after every quiet move. */
+        assertEquals(move("c4b5"), picker.nextMove());
+        assertEquals(move("c4d5"), picker.nextMove());
+        List<ChessMove> rest = new ArrayList<>();
+        for (ChessMove next = picker.nextMove(); next != null; next = picker.nextMove()) {
+            rest.add(next);
+        }
+        assertEquals(move("h5d5"), rest.get(rest.size() - 1));
+        assertNull(picker.nextMove());
+    }
+
+    @Test
+    public void staticExchange() {
+        ChessGame game = game("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | |p| | | | | |
+                | | | |n| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |R| | | | |
+                | | | |R| |K| | |
+                """, ChessGame.TeamColor.WHITE);
+        MovePicker picker = new MovePicker();
+        ChessBoard board = game.getBoard();
+        /* Rook takes knight, pawn takes rook, second rook takes pawn. */
+        assertEquals(320 - 500 + 100, picker.see(board, Moves.encode(11, 35, null, Moves.CAPTURE)));
+    }
+
+    @Test
+    public void picksEveryLegalMove() {
+        ChessGame game = new ChessGame();
+        Random random = new Random(3);
+        MovePicker picker = new MovePicker();
+        MoveList moves = new MoveList();
+        for (int played = 0; played < 80; played++) {
+            game.generateMoves(moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            HashSet<Integer> expected = new HashSet<>();
+            for (int i = 0; i < moves.size(); i++) {
+                expected.add(moves.get(i));
+            }
+            HashSet<Integer> picked = new HashSet<>();
+            picker.reset(game);
+            for (int move = picker.next(); move != 0; move = picker.next()) {
+                assertTrue(picked.add(move));
+            }
+            assertEquals(expected, picked);
+            game.doMove(moves.get(random.nextInt(moves.size())));
+        }
+    }
+}
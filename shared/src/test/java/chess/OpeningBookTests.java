@@ -0,0 +1,103 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OpeningBookTests {
+
+    private static ChessMove move(String text) {
+        return new ChessMove(new ChessPosition(text.charAt(1) - '0', text.charAt(0) - 'a' + 1),
+                new ChessPosition(text.charAt(3) - '0', text.charAt(2) - 'a' + 1), null);
+    }
+
+    @Test
+    public void looksUpWeightedReplies() throws InvalidMoveException, IOException {
+        Path file = Files.createTempFile("book", ".bin");
+        try {
+            new OpeningBookBuilder()
+                    .addLine(List.of(move("e2e4"), move("e7e5"), move("g1f3"), move("b8c6"), move("f1c4"), move("g8f6"),
+                            move("e1g1")))
+                    .addLine(List.of(move("e2e4"), move("c7c5")))
+                    .addLine(List.of(move("e2e4"), move("e7e5")))
+                    .addLine(List.of(move("d2d4"), move("d7d5")))
+                    .write(file);
+            OpeningBook book = OpeningBook.open(file);
+            assertEquals(10, book.size());
+
+            ChessGame game = new ChessGame();
+            assertTrue(book.contains(game));
+            assertEquals(move("e2e4"), book.bestMove(game));
+            MoveList moves = new MoveList();
+            int[] weights = new int[8];
+            assertEquals(2, book.lookup(game, moves, weights));
+            assertEquals(4, weights[0] + weights[1]);
+
+            game.makeMove(move("e2e4"));
+            assertEquals(move("e7e5"), book.bestMove(game));
+            for (String text : List.of("e7e5", "g1f3", "b8c6", "f1c4", "g8f6")) {
+                game.makeMove(move(text));
+            }
+            assertEquals(move("e1g1"), book.bestMove(game));
+            game.makeMove(move("e1g1"));
+            assertFalse(book.contains(game));
+            assertNull(book.bestMove(game));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /* The reference keys published with the Polyglot book format. */
+    @Test
+    public void polyglotKeysMatchReference() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        assertEquals(0x463b96181691fc9cL, OpeningBook.polyglotKey(game));
+        long[] expected = {0x823c9b50fd114196L, 0x0756b94461c50fb0L, 0x662fafb965db29d4L, 0x22a48b5a8e47ff78L,
+                0x652a607ca3f242c1L, 0x00fdd303c946bdd9L};
+        String[] line = {"e2e4", "d7d5", "e4e5", "f7f5", "e1e2", "e8f7"};
+        for (int i = 0; i < line.length; i++) {
+            game.makeMove(move(line[i]));
+            assertEquals(expected[i], OpeningBook.polyglotKey(game), line[i]);
+        }
+
+        game = new ChessGame();
+        for (String text : List.of("a2a4", "b7b5", "h2h4", "b5b4", "c2c4")) {
+            game.makeMove(move(text));
+        }
+        assertEquals(0x3c8123ea7b067637L, OpeningBook.polyglotKey(game));
+        game.makeMove(move("b4c3"));
+        game.makeMove(move("a1a3"));
+        assertEquals(0x5c3f9b829b279560L, OpeningBook.polyglotKey(game));
+
+        assertEquals(0x22a48b5a8e47ff78L, OpeningBook.polyglotKey(
+                ChessGame.fromFen("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3")));
+    }
+
+    /* A book written elsewhere, keyed the Polyglot way: 1. e4 from the start, weighted over 1. d4. */
+    @Test
+    public void readsPolyglotBook() throws IOException {
+        Path file = Files.createTempFile("book", ".bin");
+        try {
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+                for (int[] entry : new int[][]{{0x031C, 10}, {0x02DB, 4}}) {
+                    out.writeLong(0x463b96181691fc9cL);
+                    out.writeShort(entry[0]);
+                    out.writeShort(entry[1]);
+                    out.writeInt(0);
+                }
+            }
+            OpeningBook book = OpeningBook.open(file);
+            assertEquals(move("e2e4"), book.bestMove(new ChessGame()));
+            MoveList moves = new MoveList();
+            assertEquals(2, book.lookup(new ChessGame(), moves, new int[2]));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PerftTests {
+
+    @Test
+    public void startingPosition() {
+        ChessGame game = new ChessGame();
+        assertEquals(20, Perft.perft(game, 1));
+        assertEquals(400, Perft.perft(game, 2));
+        assertEquals(8902, Perft.perft(game, 3));
+        assertEquals(197281, Perft.perft(game, 4));
+        assertEquals(new ChessGame(), game);
+    }
+
+    @Test
+    public void castlingAndPromotionPosition() {
+        // "Kiwipete": castling both ways, pins, en passant and promotions all show up within three plies.
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                |r| | | |k| | |r|
+                |p| |p|p|q|p|b| |
+                |b|n| | |p|n|p| |
+                | | | |P|N| | | |
+                | |p| | |P| | | |
+                | | |N| | |Q| |p|
+                |P|P|P|B|B|P|P|P|
+                |R| | | |K| | |R|
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        assertEquals(48, Perft.perft(game, 1));
+        assertEquals(2039, Perft.perft(game, 2));
+        assertEquals(97862, Perft.perft(game, 3));
+    }
+
+    @Test
+    public void divideAddsUpToPerft() {
+        ChessGame game = new ChessGame();
+        long total = 0;
+        for (long nodes : Perft.divide(game, 3).values()) {
+            total += nodes;
+        }
+        assertEquals(Perft.perft(game, 3), total);
+    }
+
+    @Test
+    public void parallelMatchesSequential() {
+        ChessGame game = new ChessGame();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(Perft.divide(game, 3), new ParallelPerft(pool, 0).divide(game, 3));
+            assertEquals(197281, new ParallelPerft(pool, 0).perft(game, 4));
+            assertEquals(197281, new ParallelPerft(pool, 1).perft(game, 4));
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(new ChessGame(), game);
+    }
+
+    @Test
+    public void packedMovesMatchValidMoves() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                |r| | | |k| | |r|
+                |p| |p|p|q|p|b| |
+                |b|n| | |p|n|p| |
+                | | | |P|N| | | |
+                | |p| | |P| | | |
+                | | |N| | |Q| |p|
+                |P|P|P|B|B|P|P|P|
+                |R| | | |K| | |R|
+                """));
+        MoveList moves = new MoveList();
+        game.generateMoves(moves);
+        assertEquals(new HashSet<>(game.validMoves(ChessGame.TeamColor.WHITE)), new HashSet<>(moves.toChessMoves()));
+        for (int i = 0; i < moves.size(); i++) {
+            ChessMove move = Moves.toChessMove(moves.get(i));
+            assertEquals(Moves.encode(move), moves.get(i) & ~(Moves.CAPTURE | Moves.CASTLE | Moves.EN_PASSANT));
+            assertEquals(game.getBoard().getPiece(move.getEndPosition()) != null, Moves.isCapture(moves.get(i)));
+        }
+    }
+}
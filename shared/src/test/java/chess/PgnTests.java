@@ -0,0 +1,207 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PgnTests {
+    private static PgnReader reader(String pgn) {
+        return new PgnReader(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static List<String> readMoves(PgnReader reader) throws IOException, InvalidMoveException {
+        List<String> moves = new ArrayList<>();
+        for (int move = reader.nextMove(); move != 0; move = reader.nextMove()) {
+            moves.add(name(move));
+        }
+        return moves;
+    }
+
+    private static String name(int move) {
+        StringBuilder name = new StringBuilder(4);
+        for (int square : new int[]{Moves.from(move), Moves.to(move)}) {
+            name.append((char) ('a' + (square & 7))).append((char) ('1' + (square >>> 3)));
+        }
+        return name.toString();
+    }
+
+    @Test
+    public void sanForMoves() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        MoveList moves = new MoveList();
+        assertEquals(Moves.CASTLE, San.parse(game, "O-O", moves) & Moves.CASTLE);
+        assertEquals(Moves.CASTLE, San.parse(game, "0-0-0", moves) & Moves.CASTLE);
+        int capture = San.parse(game, "Qxf6", moves);
+        assertTrue(Moves.isCapture(capture));
+        StringBuilder san = new StringBuilder();
+        San.append(game, capture, moves, san);
+        assertEquals("Qxf6", san.toString());
+        san.setLength(0);
+        San.append(game, San.parse(game, "dxe6", moves), moves, san);
+        assertEquals("dxe6", san.toString());
+
+        /* Both knights can reach d5 and b5; the file tells them apart. */
+        ChessGame knights = ChessGame.fromFen("4k3/8/8/8/8/2N1N3/8/4K3 w - - 0 1");
+        int move = San.parse(knights, "Ncd5", moves);
+        assertEquals(ChessPosition.of(2 * 8 + 2), Moves.toChessMove(move).getStartPosition());
+        san.setLength(0);
+        San.append(knights, move, moves, san);
+        assertEquals("Ncd5", san.toString());
+        assertThrows(InvalidMoveException.class, () -> San.parse(knights, "Nd5", new MoveList()));
+
+        /* Rooks on one file are told apart by rank. */
+        ChessGame rooks = ChessGame.fromFen("4k3/R7/8/8/8/8/R7/4K3 w - - 0 1");
+        san.setLength(0);
+        San.append(rooks, San.parse(rooks, "R2a5", moves), moves, san);
+        assertEquals("R2a5", san.toString());
+    }
+
+    @Test
+    public void promotionsAndMate() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/1P6/8/8/8/8/8/4K2R w K - 0 1");
+        MoveList moves = new MoveList();
+        int promotion = San.parse(game, "b8=Q+", moves);
+        assertEquals(ChessPiece.PieceType.QUEEN, Moves.promotion(promotion));
+        assertEquals(ChessPiece.PieceType.KNIGHT, Moves.promotion(San.parse(game, "b8N", moves)));
+        StringBuilder san = new StringBuilder();
+        San.append(game, promotion, moves, san);
+        assertEquals("b8=Q+", san.toString());
+        assertThrows(InvalidMoveException.class, () -> San.parse(game, "b8", new MoveList()));
+
+        ChessGame mate = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R3K3 w Q - 0 1");
+        assertEquals("Ra8#", San.toSan(mate, new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null)));
+        assertEquals("O-O-O", San.toSan(mate, new ChessMove(new ChessPosition(1, 5), new ChessPosition(1, 3), null)));
+    }
+
+    @Test
+    public void rejectsBadMoves() {
+        ChessGame game = new ChessGame();
+        for (String san : List.of("", "e5", "Ke2", "O-O", "Qz4", "e4=Q", "Nf3f3", "x")) {
+            assertThrows(InvalidMoveException.class, () -> San.parse(game, san, new MoveList()), san);
+        }
+    }
+
+    @Test
+    public void readsAnnotatedGames() throws IOException, InvalidMoveException {
+        String pgn = """
+                [Event "Test \\"quoted\\""]
+                [White "A"]
+                [Black "B"]
+                [Result "1-0"]
+
+                1. e4 {best by test} e5 2.Nf3 (2. f4 exf4 (2... d5) 3. Nf3) Nc6 $1 3. Bb5!? a6
+                ; a rest-of-line comment
+                4. Ba4 Nf6 5. O-O 1-0
+
+                [Event "Second"]
+                [SetUp "1"]
+                [FEN "4k3/8/8/8/8/8/4P3/4K3 b - - 0 12"]
+
+                12... Kd7 13. e4 *
+                """;
+        try (PgnReader reader = reader(pgn)) {
+            assertTrue(reader.nextGame());
+            assertEquals("Test \"quoted\"", reader.tag("Event"));
+            assertEquals(List.of("Event", "White", "Black", "Result"), new ArrayList<>(reader.tags().keySet()));
+            assertEquals(9, readMoves(reader).size());
+            assertEquals("1-0", reader.result());
+            assertEquals("r1bqkb1r/1ppp1ppp/p1n2n2/4p3/B3P3/5N2/PPPP1PPP/RNBQ1RK1 b kq - 3 5",
+                    reader.game().toFen());
+
+            assertTrue(reader.nextGame());
+            assertEquals("Second", reader.tag("Event"));
+            assertEquals(2, readMoves(reader).size());
+            assertEquals("*", reader.result());
+            assertEquals("8/3k4/8/8/4P3/8/8/4K3 b - - 0 13", reader.game().toFen());
+            assertFalse(reader.nextGame());
+        }
+    }
+
+    @Test
+    public void skipsUnreadMoves() throws IOException, InvalidMoveException {
+        try (PgnReader reader = reader("1. e4 e5 1/2-1/2\n\n1. d4 d5 0-1\n")) {
+            assertTrue(reader.nextGame());
+            assertEquals("e2e4", name(reader.nextMove()));
+            assertTrue(reader.nextGame());
+            assertEquals(List.of("d2d4", "d7d5"), readMoves(reader));
+            assertEquals("0-1", reader.result());
+            assertFalse(reader.nextGame());
+        }
+    }
+
+    @Test
+    public void readsLooseMoveNumbersAndEnPassantMarks() throws IOException, InvalidMoveException {
+        try (PgnReader reader = reader("1 e4 a6 2 . e5 d5 3 exd6 e.p. 3 ... cxd6 4.d4 e5 5. dxe5 f5 6. exf6e.p. *")) {
+            assertTrue(reader.nextGame());
+            assertEquals(List.of("e2e4", "a7a6", "e4e5", "d7d5", "e5d6", "c7d6", "d2d4", "e7e5", "d4e5", "f7f5",
+                    "e5f6"), readMoves(reader));
+            assertEquals("*", reader.result());
+        }
+    }
+
+    @Test
+    public void reportsIllegalMoves() throws IOException, InvalidMoveException {
+        try (PgnReader reader = reader("1. e4 e4 *")) {
+            assertTrue(reader.nextGame());
+            reader.nextMove();
+            assertThrows(InvalidMoveException.class, reader::nextMove);
+        }
+    }
+
+    @Test
+    public void roundTrips() throws IOException, InvalidMoveException {
+        Random random = new Random(19);
+        List<List<Integer>> games = new ArrayList<>();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (PgnWriter writer = new PgnWriter(bytes)) {
+            MoveList moves = new MoveList();
+            for (int i = 0; i < 20; i++) {
+                Map<String, String> tags = new LinkedHashMap<>();
+                tags.put("Event", "Game " + i);
+                tags.put("Result", "*");
+                ChessGame start = i % 2 == 0 ? new ChessGame()
+                        : ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b KQkq - 0 1");
+                writer.startGame(tags, start);
+                List<Integer> played = new ArrayList<>();
+                for (int ply = 0; ply < 120; ply++) {
+                    writer.game().generateMoves(moves);
+                    if (moves.isEmpty()) {
+                        break;
+                    }
+                    int move = moves.get(random.nextInt(moves.size()));
+                    writer.move(move);
+                    played.add(move);
+                }
+                writer.endGame("*");
+                games.add(played);
+            }
+        }
+        for (String line : bytes.toString(StandardCharsets.UTF_8).split("\n")) {
+            assertTrue(line.length() < 80, line);
+        }
+
+        try (PgnReader reader = new PgnReader(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())))) {
+            for (List<Integer> played : games) {
+                assertTrue(reader.nextGame());
+                List<Integer> read = new ArrayList<>();
+                for (int move = reader.nextMove(); move != 0; move = reader.nextMove()) {
+                    read.add(move);
+                }
+                assertEquals(played, read);
+                assertEquals("*", reader.result());
+            }
+            assertFalse(reader.nextGame());
+        }
+    }
+}
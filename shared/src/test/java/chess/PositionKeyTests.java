@@ -0,0 +1,58 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PositionKeyTests {
+
+    private static ChessMove move(int startRow, int startColumn, int endRow, int endColumn) {
+        return new ChessMove(new ChessPosition(startRow, startColumn), new ChessPosition(endRow, endColumn), null);
+    }
+
+    @Test
+    public void transpositionsShareKey() throws InvalidMoveException {
+        ChessGame first = new ChessGame();
+        first.makeMove(move(1, 7, 3, 6));
+        first.makeMove(move(8, 7, 6, 6));
+        first.makeMove(move(1, 2, 3, 3));
+
+        ChessGame second = new ChessGame();
+        second.makeMove(move(1, 2, 3, 3));
+        second.makeMove(move(8, 7, 6, 6));
+        second.makeMove(move(1, 7, 3, 6));
+
+        assertEquals(first.positionKey(), second.positionKey());
+        assertEquals(first.hashCode(), second.hashCode());
+    }
+
+    @Test
+    public void keyMatchesRebuiltBoard() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        game.makeMove(move(7, 4, 5, 4));
+        game.makeMove(move(4, 5, 5, 4));
+
+        ChessBoard copy = new ChessBoard();
+        for (int row = 1; row <= 8; row++) {
+            for (int column = 1; column <= 8; column++) {
+                ChessPosition position = new ChessPosition(row, column);
+                copy.addPiece(position, game.getBoard().getPiece(position));
+            }
+        }
+        ChessGame rebuilt = new ChessGame();
+        rebuilt.setBoard(copy);
+        rebuilt.setTeamTurn(game.getTeamTurn());
+
+        assertEquals(game.positionKey(), rebuilt.positionKey());
+    }
+
+    @Test
+    public void sideToMoveChangesKey() {
+        ChessGame white = new ChessGame();
+        ChessGame black = new ChessGame();
+        black.setTeamTurn(ChessGame.TeamColor.BLACK);
+
+        assertNotEquals(white.positionKey(), black.positionKey());
+    }
+}
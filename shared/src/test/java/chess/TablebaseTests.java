@@ -0,0 +1,135 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TablebaseTests {
+    private static Path directory;
+
+    /* Generating takes a few seconds, so the tests share one set of files. */
+    private static synchronized Path tables() throws IOException {
+        if (directory == null) {
+            directory = Files.createTempDirectory("tablebase");
+            directory.toFile().deleteOnExit();
+            TablebaseGenerator.generate(directory);
+            for (ChessPiece.PieceType piece : Tablebase.PIECES) {
+                directory.resolve(Tablebase.fileName(piece)).toFile().deleteOnExit();
+            }
+        }
+        return directory;
+    }
+
+    private static ChessGame game(String board, ChessGame.TeamColor turn) {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard(board));
+        game.setTeamTurn(turn);
+        return game;
+    }
+
+    @Test
+    public void longestMates() throws IOException {
+        /* The longest wins are mate in 10 with a queen and mate in 16 with a rook. */
+        assertEquals(19, longest(Files.readAllBytes(tables().resolve("kqk.dtm"))));
+        assertEquals(31, longest(Files.readAllBytes(tables().resolve("krk.dtm"))));
+    }
+
+    private static int longest(byte[] table) {
+        int plies = 0;
+        for (byte value : table) {
+            if ((value & 0xFF) % 2 == 0 && value != 0) {
+                plies = Math.max(plies, (value & 0xFF) - 1);
+            }
+        }
+        return plies;
+    }
+
+    @Test
+    public void probesMatesAndDraws() throws IOException {
+        Tablebase tablebase = Tablebase.open(tables());
+
+        assertEquals(Engine.MATE - 1, tablebase.probe(game("""
+                | | | | | | | |k|
+                |Q| | | | | | | |
+                | | | | | | |K| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.WHITE)));
+        assertEquals(0, tablebase.probe(game("""
+                | | | | | | | |k|
+                | | | | | |Q| | |
+                | | | | | | |K| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.BLACK)));
+
+        /* The same mate with black as the stronger side is looked up flipped. */
+        assertEquals(Engine.MATE - 1, tablebase.probe(game("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | |k| |
+                |q| | | | | | | |
+                | | | | | | | |K|
+                """, ChessGame.TeamColor.BLACK)));
+
+        /* The rook ending from the side being mated. */
+        int losing = tablebase.probe(game("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | |R| | |K| | | |
+                """, ChessGame.TeamColor.BLACK));
+        assertTrue(losing < 0 && losing > -Engine.MATE);
+    }
+
+    @Test
+    public void probesPawnEndings() throws IOException {
+        Tablebase tablebase = Tablebase.open(tables());
+
+        /* The king on the sixth in front of its pawn always wins. */
+        int winning = tablebase.probe(game("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                | | | | |P| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.WHITE));
+        assertTrue(winning > 0 && winning < Engine.MATE);
+
+        /* Behind the pawn with black holding the opposition it is drawn. */
+        assertEquals(0, tablebase.probe(game("""
+                | | | | | | | | |
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | |P| | | |
+                | | | | |K| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.WHITE)));
+
+        /* More pieces than the tables cover. */
+        assertEquals(Tablebase.NOT_FOUND, tablebase.probe(new ChessGame()));
+    }
+}
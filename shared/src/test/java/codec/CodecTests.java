@@ -0,0 +1,76 @@
+package codec;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Test;
+import websocket.commands.*;
+import websocket.messages.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CodecTests {
+    private static ServerMessage roundTrip(ServerMessage message) {
+        return Codec.gson().fromJson(Codec.gson().toJson(message), ServerMessage.class);
+    }
+
+    @Test
+    public void readsMessagesAsTheirOwnClass() throws InvalidMoveException {
+        var notification = assertInstanceOf(NotificationMessage.class, roundTrip(new NotificationMessage("hi")));
+        assertEquals("hi", notification.message());
+
+        var error = assertInstanceOf(ErrorMessage.class, roundTrip(new ErrorMessage("Error: bad move")));
+        assertEquals("Error: bad move", error.message());
+
+        ChessGame game = new ChessGame();
+        ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        game.makeMove(move);
+        var loadGame = assertInstanceOf(LoadGameMessage.class, roundTrip(new LoadGameMessage(game)));
+        assertEquals(game.toFen(), loadGame.game().toFen());
+
+        var applied = new MoveAppliedMessage(move, game.getTeamTurn(), game.getStatus(), game.positionKey());
+        var read = assertInstanceOf(MoveAppliedMessage.class, roundTrip(applied));
+        assertEquals(move, read.move());
+        assertEquals(game.positionKey(), read.positionKey());
+    }
+
+    @Test
+    public void typeMayComeFirst() {
+        ServerMessage message = Codec.gson().fromJson(
+                "{\"serverMessageType\":\"ERROR\",\"errorMessage\":\"Error: not your turn\"}", ServerMessage.class);
+        assertEquals("Error: not your turn", assertInstanceOf(ErrorMessage.class, message).message());
+    }
+
+    @Test
+    public void unknownTypeReadsAsBase() {
+        ServerMessage message = Codec.gson().fromJson("{\"serverMessageType\":\"LOAD_GAME\"}", ServerMessage.class);
+        assertInstanceOf(LoadGameMessage.class, message);
+        message = Codec.gson().fromJson("{\"errorMessage\":\"x\"}", ServerMessage.class);
+        assertEquals(ServerMessage.class, message.getClass());
+        assertNull(Codec.gson().fromJson("null", ServerMessage.class));
+    }
+
+    @Test
+    public void readsCommandsAsTheirOwnClass() {
+        ChessMove move = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1), null);
+        UserGameCommand command = Codec.gson().fromJson(
+                Codec.gson().toJson(new MakeMoveCommand("token", 3, move)), UserGameCommand.class);
+        assertEquals(move, assertInstanceOf(MakeMoveCommand.class, command).move());
+        assertEquals("token", command.getAuthToken());
+
+        /* A plain command, as the passoff tests send, still reads as the class its type goes with. */
+        command = Codec.gson().fromJson(Codec.gson().toJson(
+                new UserGameCommand(UserGameCommand.CommandType.CONNECT, "token", 3)), UserGameCommand.class);
+        assertFalse(assertInstanceOf(ConnectCommand.class, command).moveDeltas());
+        assertEquals(3, (int) command.getGameID());
+
+        assertInstanceOf(LeaveCommand.class, Codec.gson().fromJson(
+                "{\"commandType\":\"LEAVE\",\"authToken\":\"t\",\"gameID\":1}", UserGameCommand.class));
+        assertInstanceOf(ResignCommand.class, Codec.gson().fromJson(
+                "{\"commandType\":\"RESIGN\"}", UserGameCommand.class));
+        assertInstanceOf(ResyncCommand.class, Codec.gson().fromJson(
+                "{\"commandType\":\"RESYNC\"}", UserGameCommand.class));
+        assertNull(Codec.gson().fromJson("{\"commandType\":\"DRAW\"}", UserGameCommand.class).getCommandType());
+    }
+}